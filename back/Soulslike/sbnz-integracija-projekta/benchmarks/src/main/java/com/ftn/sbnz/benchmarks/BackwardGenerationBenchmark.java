@@ -0,0 +1,79 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.BackwardQuery;
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.service.EnemyGenerationService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backward chaining ({@link EnemyGenerationService#findSpecificEnemy}) for targets
+ * spread over the catalog, with the whole catalog or only the scoped candidates
+ * loaded into the session, validating the candidates recursively or in one pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BackwardGenerationBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    private int catalogSize;
+
+    @Param({ "EARLY_GAME", "LATE_GAME", "MIXED" })
+    private ContextShape contextShape;
+
+    @Param({ "all", "scoped" })
+    private String candidateScope;
+
+    @Param({ "recursive", "flat" })
+    private String validation;
+
+    private EnemyEngine engine;
+    private EnemyGenerationService service;
+    private List<GameContext> contexts;
+    private List<Enemy> catalog;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(catalogSize, 42);
+        engine = EnemyEngine.start(catalog, Map.of(
+            "enemy.backward.candidate-scope", candidateScope,
+            "enemy.backward.validation", validation));
+        service = engine.service();
+        contexts = contextShape.contexts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public Enemy findSpecificEnemy() {
+        GameContext context = contexts.get(next % contexts.size());
+        String target = catalog.get((next * 7919) % catalog.size()).getName();
+        next++;
+        return service.findSpecificEnemy(new BackwardQuery(target, context));
+    }
+}
@@ -0,0 +1,29 @@
+package com.ftn.sbnz.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line and always
+ * adds the GC profiler, so every result reports the allocation rate per operation
+ * (gc.alloc.rate.norm).
+ *
+ * <pre>
+ * (cd model &amp;&amp; mvn install) &amp;&amp; (cd kjar &amp;&amp; mvn install) &amp;&amp; (cd service &amp;&amp; mvn install)
+ * cd benchmarks &amp;&amp; mvn package
+ * java -jar target/benchmarks.jar ForwardGenerationBenchmark -p catalogSize=1000
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
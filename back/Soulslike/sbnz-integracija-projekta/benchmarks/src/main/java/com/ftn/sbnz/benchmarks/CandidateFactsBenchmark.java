@@ -0,0 +1,183 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.EnemyCandidate;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.SelectionResult;
+import com.ftn.sbnz.service.EnemyGenerationService;
+
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.drools.decisiontable.ExternalSpreadsheetCompiler;
+import org.kie.api.KieBase;
+import org.kie.api.builder.Message;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.utils.KieHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward rules of the kjar, which match {@code EnemyCandidate(...) from
+ * enemyCandidates}, against the same rules with the candidates inserted as working
+ * memory facts and changed with modify (legacy/ in this module). Both are compiled
+ * from DRL and fired the same way, without the phase planner, so only the rule
+ * shape differs. candidates is the number of enemies of the context region.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateFactsBenchmark {
+
+    private static final String RULE_DIRECTORY = "rules/enemy/";
+    private static final String TEMPLATE = "templates/difficulty-adjustment.drt";
+    private static final String FACTS_DIRECTORY = "legacy/";
+    private static final String[] RULE_FILES = {
+        "region.drl", "player-level.drl", "build.drl", "weather.drl", "daytime.drl", "final.drl"
+    };
+
+    @Param({ "1000", "10000" })
+    private int candidates;
+
+    @Param({ "facts", "from" })
+    private String rules;
+
+    private KieSession session;
+    private Map<String, List<Enemy>> catalog;
+    private List<GameContext> contexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        session = compile("facts".equals(rules) ? factsRules() : kjarRules()).newKieSession();
+
+        catalog = new HashMap<>();
+        for (Enemy enemy : SyntheticCatalog.generate(candidates * SyntheticCatalog.REGIONS.length, 42)) {
+            catalog.computeIfAbsent(enemy.getRegion(), region -> new ArrayList<>()).add(enemy);
+        }
+        contexts = ContextShape.MIXED.contexts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.dispose();
+    }
+
+    @Benchmark
+    public Enemy generateEnemy() {
+        GameContext context = contexts.get(next);
+        next = (next + 1) % contexts.size();
+        List<Enemy> regionEnemies = catalog.get(context.getRegion());
+
+        session.insert(context);
+        session.insert(context.getPlayer());
+        if ("facts".equals(rules)) {
+            for (int i = 0; i < regionEnemies.size(); i++) {
+                session.insert(new EnemyCandidate(regionEnemies.get(i), context, i));
+            }
+        } else {
+            List<Enemy> enemyCandidates = new ArrayList<>(regionEnemies.size());
+            for (int i = 0; i < regionEnemies.size(); i++) {
+                enemyCandidates.add(new EnemyCandidate(regionEnemies.get(i), context, i));
+            }
+            session.setGlobal("enemyCandidates", enemyCandidates);
+        }
+
+        List<String> phases = EnemyGenerationService.FORWARD_PHASES;
+        for (int i = phases.size() - 1; i >= 0; i--) {
+            session.getAgenda().getAgendaGroup(phases.get(i)).setFocus();
+        }
+        session.fireAllRules();
+
+        Collection<?> results = session.getObjects(new ClassObjectFilter(SelectionResult.class));
+        Enemy selected = results.isEmpty() ? null : ((SelectionResult) results.iterator().next()).getSelectedEnemy();
+        ((StatefulKnowledgeSessionImpl) session).reset();
+        return selected;
+    }
+
+    /** Rule files and the template of the kjar on the classpath, by path. */
+    private static Map<String, String> kjarRules() {
+        Map<String, String> files = new HashMap<>();
+        for (String ruleFile : RULE_FILES) {
+            files.put(RULE_DIRECTORY + ruleFile, read(resource("/" + RULE_DIRECTORY + ruleFile)));
+        }
+        files.put(TEMPLATE, read(resource("/" + TEMPLATE)));
+        return files;
+    }
+
+    /** Rule files and the template of legacy/, under the paths of the kjar ones. */
+    private static Map<String, String> factsRules() {
+        Map<String, String> files = new HashMap<>();
+        for (String ruleFile : RULE_FILES) {
+            files.put(RULE_DIRECTORY + ruleFile, read(resource("/" + FACTS_DIRECTORY + ruleFile)));
+        }
+        files.put(TEMPLATE, read(resource("/" + FACTS_DIRECTORY + "difficulty-adjustment.drt")));
+        return files;
+    }
+
+    private static KieBase compile(Map<String, String> files) {
+        KieHelper kieHelper = new KieHelper();
+        kieHelper.addContent(new ExternalSpreadsheetCompiler().compile(
+            resource("/templates/template-data.xls"),
+            new ByteArrayInputStream(required(files, TEMPLATE).getBytes(StandardCharsets.UTF_8)), 3, 2), ResourceType.DRL);
+        for (String ruleFile : RULE_FILES) {
+            kieHelper.addContent(required(files, RULE_DIRECTORY + ruleFile), ResourceType.DRL);
+        }
+
+        List<Message> errors = kieHelper.verify().getMessages(Message.Level.ERROR);
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Rule compilation failed: " + errors);
+        }
+        return kieHelper.build();
+    }
+
+    private static String required(Map<String, String> files, String path) {
+        String content = files.get(path);
+        if (content == null) {
+            throw new IllegalStateException("Missing rule file " + path);
+        }
+        return content;
+    }
+
+    private static String read(InputStream resource) {
+        try (InputStream in = resource) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream resource(String path) {
+        InputStream in = CandidateFactsBenchmark.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IllegalStateException("Missing resource " + path);
+        }
+        return in;
+    }
+}
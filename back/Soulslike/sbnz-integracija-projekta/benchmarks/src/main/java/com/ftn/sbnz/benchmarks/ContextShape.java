@@ -0,0 +1,62 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Families of game contexts the benchmarks cycle through. Each shape exercises a
+ * different subset of the difficulty, level, build, weather and time rules.
+ */
+public enum ContextShape {
+
+    EARLY_GAME {
+        @Override
+        List<GameContext> contexts() {
+            List<GameContext> contexts = new ArrayList<>();
+            for (String region : SyntheticCatalog.REGIONS) {
+                contexts.add(new GameContext(region, "easy", "clear", "day",
+                    new Player("bench", 5, Player.PlayerClass.STRENGTH, "sword")));
+            }
+            return contexts;
+        }
+    },
+
+    LATE_GAME {
+        @Override
+        List<GameContext> contexts() {
+            List<GameContext> contexts = new ArrayList<>();
+            for (String region : SyntheticCatalog.REGIONS) {
+                contexts.add(new GameContext(region, "hard", "rain", "night",
+                    new Player("bench", 70, Player.PlayerClass.MAGE, "staff")));
+            }
+            return contexts;
+        }
+    },
+
+    MIXED {
+        @Override
+        List<GameContext> contexts() {
+            String[] difficulties = { "easy", "medium", "medium-hard", "hard" };
+            String[] weathers = { "clear", "rain", "fog", "snow", "sandstorm" };
+            String[] times = { "day", "night" };
+            int[] levels = { 5, 20, 35, 45, 70 };
+            Player.PlayerClass[] classes = Player.PlayerClass.values();
+
+            List<GameContext> contexts = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                contexts.add(new GameContext(
+                    SyntheticCatalog.REGIONS[i % SyntheticCatalog.REGIONS.length],
+                    difficulties[i % difficulties.length],
+                    weathers[i % weathers.length],
+                    times[i % times.length],
+                    new Player("bench", levels[i % levels.length], classes[i % classes.length], "sword")));
+            }
+            return contexts;
+        }
+    };
+
+    abstract List<GameContext> contexts();
+}
@@ -0,0 +1,105 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.service.DecisionTable;
+import com.ftn.sbnz.service.EnemyCatalog;
+import com.ftn.sbnz.service.EnemyGenerationService;
+import com.ftn.sbnz.service.EnemyRepository;
+import com.ftn.sbnz.service.ForwardKieBaseCache;
+import com.ftn.sbnz.service.GenerationResultCache;
+import com.ftn.sbnz.service.KieSessionPool;
+import com.ftn.sbnz.service.PhasePlanner;
+import com.ftn.sbnz.service.RuleEngineMetrics;
+import com.ftn.sbnz.service.RuleRelease;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The enemy generation beans wired in a plain Spring context, without the web
+ * layer, JPA or PostgreSQL. The kjar is loaded from the classpath.
+ */
+public final class EnemyEngine implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+
+    private EnemyEngine(AnnotationConfigApplicationContext context) {
+        this.context = context;
+    }
+
+    public static EnemyEngine start(List<Enemy> catalog, Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(new DefaultConversionService());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.registerBean(EnemyRepository.class, () -> InMemoryEnemyRepository.of(catalog));
+        context.register(EngineConfiguration.class);
+        context.refresh();
+
+        EnemyEngine engine = new EnemyEngine(context);
+        engine.catalog().refresh();
+        return engine;
+    }
+
+    public EnemyGenerationService service() {
+        return context.getBean(EnemyGenerationService.class);
+    }
+
+    public EnemyCatalog catalog() {
+        return context.getBean(EnemyCatalog.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration
+    @Import({ RuleRelease.class, ForwardKieBaseCache.class, KieSessionPool.class, EnemyCatalog.class,
+              RuleEngineMetrics.class, PhasePlanner.class, GenerationResultCache.class,
+              DecisionTable.class, EnemyGenerationService.class })
+    static class EngineConfiguration {
+
+        @Bean
+        public KieContainer kieContainer() {
+            return KieServices.Factory.get().getKieClasspathContainer();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager() {
+            return new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.service.EnemyGenerationService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward chaining ({@link EnemyGenerationService#generateEnemy}) over catalogs
+ * of different sizes; only the enemies of the context region enter the session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForwardGenerationBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    private int catalogSize;
+
+    @Param({ "EARLY_GAME", "LATE_GAME", "MIXED" })
+    private ContextShape contextShape;
+
+    /** Off by default so that the rules are evaluated for every call; -p resultCache=true measures cache hits. */
+    @Param({ "false" })
+    private boolean resultCache;
+
+    private EnemyEngine engine;
+    private EnemyGenerationService service;
+    private List<GameContext> contexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = EnemyEngine.start(SyntheticCatalog.generate(catalogSize, 42),
+            Map.of("enemy.result-cache.enabled", resultCache));
+        service = engine.service();
+        contexts = contextShape.contexts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public Enemy generateEnemy() {
+        GameContext context = contexts.get(next);
+        next = (next + 1) % contexts.size();
+        return service.generateEnemy(context);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.service.EnemyRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in for the JPA repository backed by a list, so the benchmarks measure the
+ * rule engine and not PostgreSQL. Only the queries used by the generation path
+ * are supported.
+ */
+public final class InMemoryEnemyRepository {
+
+    private InMemoryEnemyRepository() {
+    }
+
+    public static EnemyRepository of(List<Enemy> enemies) {
+        List<Enemy> store = new ArrayList<>(enemies);
+        return (EnemyRepository) Proxy.newProxyInstance(
+            EnemyRepository.class.getClassLoader(),
+            new Class<?>[] { EnemyRepository.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findAll":
+                        if (args == null) {
+                            return new ArrayList<>(store);
+                        }
+                        break;
+                    case "findAllReadOnly":
+                        return new ArrayList<>(store);
+                    case "findByRegion":
+                    case "findByRegionReadOnly":
+                        return filter(store, enemy -> Objects.equals(enemy.getRegion(), args[0]));
+                    case "findByName":
+                        return filter(store, enemy -> Objects.equals(enemy.getName(), args[0]));
+                    case "findById":
+                        return store.stream().filter(enemy -> Objects.equals(enemy.getId(), args[0])).findFirst();
+                    case "count":
+                        return (long) store.size();
+                    case "toString":
+                        return "InMemoryEnemyRepository(" + store.size() + " enemies)";
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        break;
+                }
+                throw new UnsupportedOperationException("Not supported in benchmarks: " + method.getName());
+            });
+    }
+
+    private static List<Enemy> filter(List<Enemy> store, Predicate<Enemy> predicate) {
+        return store.stream().filter(predicate).collect(Collectors.toList());
+    }
+}
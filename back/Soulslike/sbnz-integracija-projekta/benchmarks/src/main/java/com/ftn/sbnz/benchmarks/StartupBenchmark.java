@@ -0,0 +1,46 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from a cold JVM to the first generated enemy, with the forward KieBase
+ * created from the precompiled executable model (kjar) or compiled from DRL at
+ * runtime (drl). Every fork measures a single start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({ "kjar", "drl" })
+    private String kieBaseSource;
+
+    private final List<Enemy> catalog = SyntheticCatalog.generate(100, 42);
+
+    @Benchmark
+    public Enemy firstEnemy() {
+        try (EnemyEngine engine = EnemyEngine.start(catalog, Map.of("enemy.kbase.source", kieBaseSource))) {
+            GameContext context = ContextShape.MIXED.contexts().get(0);
+            return engine.service().generateEnemy(context);
+        }
+    }
+}
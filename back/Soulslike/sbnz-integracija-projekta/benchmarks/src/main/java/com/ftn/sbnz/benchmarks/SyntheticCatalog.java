@@ -0,0 +1,61 @@
+package com.ftn.sbnz.benchmarks;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic enemy catalogs of arbitrary size, spread evenly over the game
+ * regions and shaped after the seed data in init.sql.
+ */
+public final class SyntheticCatalog {
+
+    public static final String[] REGIONS = { "swamp", "castle", "mountain", "desert", "forest", "volcano" };
+
+    private static final String[] TYPES = {
+        "creature", "goblin", "knight", "witch", "mage", "archer", "beast", "troll",
+        "wraith", "spirit", "golem", "treant", "bird", "boss"
+    };
+    private static final String[] BEHAVIOURS = { "aggressive", "defensive", "stealthy", "berserker" };
+    private static final Tag[] ABILITIES = {
+        Tag.MELEE, Tag.RANGED, Tag.MAGIC, Tag.POISON, Tag.FIRE, Tag.STEALTH, Tag.FLYING, Tag.REGENERATION, Tag.CHARGE
+    };
+    private static final Tag[] RESISTANCES = { Tag.PHYSICAL, Tag.MAGIC, Tag.FIRE, Tag.POISON };
+
+    private SyntheticCatalog() {
+    }
+
+    public static List<Enemy> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Enemy> enemies = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            Enemy enemy = new Enemy("Enemy " + i, type);
+            enemy.setId((long) i + 1);
+            enemy.setRegion(REGIONS[i % REGIONS.length]);
+            enemy.setBehaviour(BEHAVIOURS[random.nextInt(BEHAVIOURS.length)]);
+
+            boolean boss = "boss".equals(type);
+            enemy.setHp(boss ? 8000 + random.nextInt(8000) : 500 + random.nextInt(5000));
+            enemy.setDamage(boss ? 600 + random.nextInt(600) : 50 + random.nextInt(450));
+            enemy.setDefense(50 + random.nextInt(400));
+            enemy.setScore(50 + random.nextInt(250));
+
+            enemy.getAbilities().add(ABILITIES[random.nextInt(ABILITIES.length)]);
+            if (random.nextBoolean()) {
+                enemy.getAbilities().add(ABILITIES[random.nextInt(ABILITIES.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                enemy.getResistances().add(RESISTANCES[random.nextInt(RESISTANCES.length)]);
+            }
+            enemy.getWeaknesses().add(RESISTANCES[random.nextInt(RESISTANCES.length)]);
+
+            enemies.add(enemy);
+        }
+        return enemies;
+    }
+}
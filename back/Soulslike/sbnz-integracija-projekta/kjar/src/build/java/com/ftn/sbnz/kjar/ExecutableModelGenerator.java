@@ -0,0 +1,128 @@
+package com.ftn.sbnz.kjar;
+
+import org.drools.compiler.compiler.io.memory.MemoryFileSystem;
+import org.drools.compiler.kie.builder.impl.MemoryKieModule;
+import org.drools.compiler.kproject.models.KieModuleModelImpl;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.drools.modelcompiler.ExecutableModelProject;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.model.KieBaseModel;
+import org.kie.api.builder.model.KieModuleModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles one kbase of the build output to the Drools executable model and writes
+ * the generated rule classes next to the DRL, plus META-INF/{kbase}/drools-model
+ * with the names of the model classes. The service creates the KieBase from those
+ * classes, without parsing DRL or compiling consequences at runtime. Runs in the
+ * process-classes phase, see the exec-maven-plugin execution in pom.xml, which
+ * launches this file as a single source file so it is not part of the kjar.
+ *
+ * Usage: ExecutableModelGenerator classesDir kbaseName
+ */
+public class ExecutableModelGenerator {
+
+	private static Logger log = LoggerFactory.getLogger(ExecutableModelGenerator.class);
+
+	private static final String KMODULE = "META-INF/kmodule.xml";
+	private static final String MODEL_FILE = "META-INF/kie/com.ftn.sbnz/generated/drools-model";
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: ExecutableModelGenerator classesDir kbaseName");
+		}
+		Path classes = Paths.get(args[0]);
+		String kbaseName = args[1];
+
+		KieModuleModel kmodule;
+		try (InputStream in = Files.newInputStream(classes.resolve(KMODULE))) {
+			kmodule = KieModuleModelImpl.fromXML(in);
+		}
+		KieBaseModel kbase = kmodule.getKieBaseModels().get(kbaseName);
+		if (kbase == null) {
+			throw new IllegalArgumentException("No kbase " + kbaseName + " in " + KMODULE);
+		}
+		for (String other : new ArrayList<>(kmodule.getKieBaseModels().keySet())) {
+			if (!other.equals(kbaseName)) {
+				kmodule.removeKieBaseModel(other);
+			}
+		}
+
+		KieServices ks = KieServices.Factory.get();
+		KieFileSystem kfs = ks.newKieFileSystem();
+		kfs.generateAndWritePomXML(ks.newReleaseId("com.ftn.sbnz", "generated", "1"));
+		kfs.writeKModuleXML(kmodule.toXML());
+		for (String rulePackage : kbase.getPackages()) {
+			Path packageDir = classes.resolve(rulePackage.replace('.', '/'));
+			deleteGeneratedClasses(packageDir);
+			for (Path resource : ruleResources(packageDir)) {
+				String name = classes.relativize(resource).toString().replace('\\', '/');
+				kfs.write("src/main/resources/" + name, Files.readAllBytes(resource));
+			}
+		}
+
+		KieBuilder builder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+		List<Message> errors = builder.getResults().getMessages(Message.Level.ERROR);
+		if (!errors.isEmpty()) {
+			throw new IllegalStateException("Executable model generation failed: " + errors);
+		}
+
+		MemoryFileSystem generated = ((MemoryKieModule) ((CanonicalKieModule) builder.getKieModule())
+			.getInternalKieModule()).getMemoryFileSystem();
+		int written = 0;
+		for (String name : generated.getFileNames()) {
+			if (name.endsWith(".class")) {
+				write(classes.resolve(name), generated.getBytes(name));
+				written++;
+			}
+		}
+		write(classes.resolve("META-INF/" + kbaseName + "/drools-model"), generated.getBytes(MODEL_FILE));
+		log.info("Executable model of {}: wrote {} classes to {}", kbaseName, written, classes);
+	}
+
+	private static void write(Path target, byte[] content) throws IOException {
+		if (content == null) {
+			throw new IllegalStateException("Generated file missing for " + target);
+		}
+		Files.createDirectories(target.getParent());
+		Files.write(target, content);
+	}
+
+	/** Removes the classes generated by a previous build of the same rule package. */
+	private static void deleteGeneratedClasses(Path rulePackage) throws IOException {
+		if (!Files.isDirectory(rulePackage)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(rulePackage)) {
+			for (Path file : files.filter(file -> file.toString().endsWith(".class")).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static List<Path> ruleResources(Path rulePackage) throws IOException {
+		if (!Files.isDirectory(rulePackage)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(rulePackage)) {
+			return files
+				.filter(Files::isRegularFile)
+				.filter(file -> !file.toString().endsWith(".class"))
+				.collect(Collectors.toList());
+		}
+	}
+}
@@ -21,6 +21,9 @@ public class BackwardQuery implements Serializable {
     private List<String> candidateNames = new ArrayList<>();
     private int currentIndex = 0;
     
+    // "recursive" (CandidateSequence lanac) ili "flat" (jedan prolaz kroz sve kandidate)
+    private String validationMode;
+    
     public BackwardQuery() {}
     
     public BackwardQuery(String targetEnemy, GameContext context) {
@@ -54,6 +57,9 @@ public class BackwardQuery implements Serializable {
     public List<String> getCandidateNames() { return candidateNames; }
     public void setCandidateNames(List<String> candidateNames) { this.candidateNames = candidateNames; }
     
+    public String getValidationMode() { return validationMode; }
+    public void setValidationMode(String validationMode) { this.validationMode = validationMode; }
+    
     public int getCurrentIndex() { return currentIndex; }
     public void setCurrentIndex(int currentIndex) { this.currentIndex = currentIndex; }
     
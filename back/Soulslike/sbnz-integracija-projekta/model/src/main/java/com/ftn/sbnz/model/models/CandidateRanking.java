@@ -0,0 +1,88 @@
+package com.ftn.sbnz.model.models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Candidates of one request ordered by score, highest first, ties in catalog
+ * order. The rankCandidates accumulate function builds it once per request, after
+ * the score rules have fired, and the selection rules and the ranked endpoint read
+ * the best candidate and the top K from it without sorting again. Adding a
+ * candidate that is already ranked moves it to its new score.
+ */
+public class CandidateRanking implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Comparator<Entry> ORDER = Comparator
+        .comparingDouble(Entry::getScore).reversed()
+        .thenComparingInt(entry -> entry.getCandidate().getSequence());
+
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<EnemyCandidate, Entry> byCandidate = new IdentityHashMap<>();
+
+    public void add(EnemyCandidate candidate) {
+        Entry entry = new Entry(candidate, candidate.getScore());
+        Entry previous = byCandidate.put(candidate, entry);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+        entries.add(entry);
+    }
+
+    public void remove(EnemyCandidate candidate) {
+        Entry entry = byCandidate.remove(candidate);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        byCandidate.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public EnemyCandidate getBest() {
+        return entries.isEmpty() ? null : entries.first().getCandidate();
+    }
+
+    /** Score of the best candidate, or negative infinity if there are no candidates. */
+    public double getBestScore() {
+        return entries.isEmpty() ? Double.NEGATIVE_INFINITY : entries.first().getScore();
+    }
+
+    public List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, entries.size()));
+        Iterator<Entry> iterator = entries.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    /** A candidate with the score it had when it was last ranked. */
+    public static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final EnemyCandidate candidate;
+        private final double score;
+
+        Entry(EnemyCandidate candidate, double score) {
+            this.candidate = candidate;
+            this.score = score;
+        }
+
+        public EnemyCandidate getCandidate() { return candidate; }
+
+        public double getScore() { return score; }
+    }
+}
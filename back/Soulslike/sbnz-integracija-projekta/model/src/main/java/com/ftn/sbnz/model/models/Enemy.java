@@ -1,23 +1,39 @@
 package com.ftn.sbnz.model.models;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Set;
 
+import javax.persistence.CollectionTable;
+import javax.persistence.Convert;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
 
 
 @Entity
-@Table(name = "enemies")
+@Table(
+    name = "enemies",
+    uniqueConstraints = @UniqueConstraint(name = Enemy.UNIQUE_REGION_NAME, columnNames = {"region", "name"}),
+    indexes = {
+        @Index(name = "idx_enemies_region_score", columnList = "region, score"),
+        @Index(name = "idx_enemies_type_region", columnList = "type, region"),
+        @Index(name = "idx_enemies_name", columnList = "name")
+    }
+)
 public class Enemy implements Serializable {
 
+    /** Unique constraint that rejects a second enemy with the same name in a region. */
+    public static final String UNIQUE_REGION_NAME = "uk_enemies_region_name";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,55 +49,93 @@ public class Enemy implements Serializable {
     private double score;
     
     @ElementCollection
-    private List<String> abilities = new ArrayList<>();
+    @CollectionTable(name = "enemy_abilities", joinColumns = @JoinColumn(name = "enemy_id"),
+        indexes = @Index(name = "idx_enemy_abilities_enemy", columnList = "enemy_id"))
+    @Convert(converter = TagConverter.class)
+    private Set<Tag> abilities;
 
     @ElementCollection
-    private List<String> resistances = new ArrayList<>();
+    @CollectionTable(name = "enemy_resistances", joinColumns = @JoinColumn(name = "enemy_id"),
+        indexes = @Index(name = "idx_enemy_resistances_enemy", columnList = "enemy_id"))
+    @Convert(converter = TagConverter.class)
+    private Set<Tag> resistances;
 
     @ElementCollection
-    private List<String> statusEffects = new ArrayList<>();
+    @CollectionTable(name = "enemy_status_effects", joinColumns = @JoinColumn(name = "enemy_id"),
+        indexes = @Index(name = "idx_enemy_status_effects_enemy", columnList = "enemy_id"))
+    @Convert(converter = TagConverter.class)
+    private Set<Tag> statusEffects;
 
     @ElementCollection
-    private Set<String> weaknesses = new HashSet<>();
+    @CollectionTable(name = "enemy_weaknesses", joinColumns = @JoinColumn(name = "enemy_id"),
+        indexes = @Index(name = "idx_enemy_weaknesses_enemy", columnList = "enemy_id"))
+    @Convert(converter = TagConverter.class)
+    private Set<Tag> weaknesses;
     
     private int experienceReward = 0;
     private double criticalChance = 0.1;
     private double dodgeChance = 0.1;
 
     public Enemy() {
-
+        this.abilities = EnumSet.noneOf(Tag.class);
+        this.resistances = EnumSet.noneOf(Tag.class);
+        this.statusEffects = EnumSet.noneOf(Tag.class);
+        this.weaknesses = EnumSet.noneOf(Tag.class);
     }
     
     
     public Enemy(String name, String type) {
+        this();
         this.name = name;
-        this.type = type;
+        this.type = intern(type);
         this.hp = 1000;
         this.damage = 100;
         this.defense = 50;
         this.behaviour = "aggressive";
         this.score = 0;
     }
+
+    /**
+     * Type, region and behaviour come from a small set of values that the rules
+     * compare against literals. Interning them lets those equals checks succeed
+     * on the identity test in most cases.
+     */
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    /**
+     * Copies only the scalar fields of the source. Collections are left unset so
+     * that subclasses can share them with the source instead of copying.
+     */
+    protected Enemy(Enemy source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.type = source.type;
+        this.hp = source.hp;
+        this.damage = source.damage;
+        this.defense = source.defense;
+        this.behaviour = source.behaviour;
+        this.region = source.region;
+        this.score = source.score;
+        this.experienceReward = source.experienceReward;
+        this.criticalChance = source.criticalChance;
+        this.dodgeChance = source.dodgeChance;
+    }
     
-    public void addAbility(String ability) {
-        if (!abilities.contains(ability)) {
-            abilities.add(ability);
-        }
+    public void addAbility(Tag ability) {
+        abilities.add(ability);
     }
     
-    public void addResistance(String resistance) {
-        if (!resistances.contains(resistance)) {
-            resistances.add(resistance);
-        }
+    public void addResistance(Tag resistance) {
+        resistances.add(resistance);
     }
     
-    public void addStatusEffect(String effect) {
-        if (!statusEffects.contains(effect)) {
-            statusEffects.add(effect);
-        }
+    public void addStatusEffect(Tag effect) {
+        statusEffects.add(effect);
     }
     
-    public void addWeakness(String weakness) {
+    public void addWeakness(Tag weakness) {
         weaknesses.add(weakness);
     }
     
@@ -101,7 +155,7 @@ public class Enemy implements Serializable {
     public void setName(String name) { this.name = name; }
     
     public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
+    public void setType(String type) { this.type = intern(type); }
     
     public double getHp() { return hp; }
     public void setHp(double hp) { this.hp = hp; }
@@ -113,23 +167,36 @@ public class Enemy implements Serializable {
     public void setDefense(double defense) { this.defense = defense; }
     
     public String getBehaviour() { return behaviour; }
-    public void setBehaviour(String behaviour) { this.behaviour = behaviour; }
+    public void setBehaviour(String behaviour) { this.behaviour = intern(behaviour); }
     
     public String getRegion() { return region; }
-    public void setRegion(String region) { this.region = region; }
+    public void setRegion(String region) { this.region = intern(region); }
     
     public double getScore() { return score; }
     public void setScore(double score) { this.score = score; }
     
-    public List<String> getAbilities() { return abilities; }
-    public void setAbilities(List<String> abilities) { this.abilities = abilities; }
+    public Set<Tag> getAbilities() { return abilities; }
+    public void setAbilities(Set<Tag> abilities) { this.abilities = abilities; }
     
-    public List<String> getResistances() { return resistances; }
-    public void setResistances(List<String> resistances) { this.resistances = resistances; }
+    public Set<Tag> getResistances() { return resistances; }
+    public void setResistances(Set<Tag> resistances) { this.resistances = resistances; }
     
-    public List<String> getStatusEffects() { return statusEffects; }
-    public void setStatusEffects(List<String> statusEffects) { this.statusEffects = statusEffects; }
+    public Set<Tag> getStatusEffects() { return statusEffects; }
+    public void setStatusEffects(Set<Tag> statusEffects) { this.statusEffects = statusEffects; }
     
-    public Set<String> getWeaknesses() { return weaknesses; }
-    public void setWeaknesses(Set<String> weaknesses) { this.weaknesses = weaknesses; }
+    public Set<Tag> getWeaknesses() { return weaknesses; }
+    public void setWeaknesses(Set<Tag> weaknesses) { this.weaknesses = weaknesses; }
+
+    // JSON carries the tag labels; labels outside the vocabulary are skipped
+    @JsonSetter("abilities")
+    private void setAbilityLabels(Collection<String> labels) { this.abilities = Tag.setOfLabels(labels); }
+
+    @JsonSetter("resistances")
+    private void setResistanceLabels(Collection<String> labels) { this.resistances = Tag.setOfLabels(labels); }
+
+    @JsonSetter("statusEffects")
+    private void setStatusEffectLabels(Collection<String> labels) { this.statusEffects = Tag.setOfLabels(labels); }
+
+    @JsonSetter("weaknesses")
+    private void setWeaknessLabels(Collection<String> labels) { this.weaknesses = Tag.setOfLabels(labels); }
 }
\ No newline at end of file
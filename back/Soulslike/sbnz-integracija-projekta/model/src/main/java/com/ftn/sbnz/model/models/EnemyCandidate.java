@@ -0,0 +1,122 @@
+package com.ftn.sbnz.model.models;
+
+import java.util.Set;
+
+/**
+ * Working copy of a catalog enemy used during forward chaining.
+ * Scalar stats (hp, damage, defense, score) are held by the candidate itself,
+ * while the collections are shared with the base enemy and copied only when a
+ * rule adds something to them.
+ * <p>
+ * Candidates reach the forward rules through the enemyCandidates global, which
+ * the rules match with from and change through plain setters, and belong to the
+ * GameContext they were loaded for; sequence is their position in the catalog
+ * order of that request.
+ */
+public class EnemyCandidate extends Enemy {
+
+    private final Enemy base;
+    private final GameContext context;
+    private final int sequence;
+
+    public EnemyCandidate(Enemy base, GameContext context, int sequence) {
+        super(base);
+        this.base = base;
+        this.context = context;
+        this.sequence = sequence;
+    }
+
+    public Enemy getBase() { return base; }
+
+    public GameContext getContext() { return context; }
+
+    public int getSequence() { return sequence; }
+
+    @Override
+    public Set<Tag> getAbilities() {
+        Set<Tag> own = super.getAbilities();
+        return own != null ? own : base.getAbilities();
+    }
+
+    @Override
+    public Set<Tag> getResistances() {
+        Set<Tag> own = super.getResistances();
+        return own != null ? own : base.getResistances();
+    }
+
+    @Override
+    public Set<Tag> getStatusEffects() {
+        Set<Tag> own = super.getStatusEffects();
+        return own != null ? own : base.getStatusEffects();
+    }
+
+    @Override
+    public Set<Tag> getWeaknesses() {
+        Set<Tag> own = super.getWeaknesses();
+        return own != null ? own : base.getWeaknesses();
+    }
+
+    @Override
+    public void addAbility(Tag ability) {
+        if (!getAbilities().contains(ability)) {
+            if (super.getAbilities() == null) {
+                setAbilities(Tag.setOf(base.getAbilities(), ability));
+            } else {
+                super.getAbilities().add(ability);
+            }
+        }
+    }
+
+    @Override
+    public void addResistance(Tag resistance) {
+        if (!getResistances().contains(resistance)) {
+            if (super.getResistances() == null) {
+                setResistances(Tag.setOf(base.getResistances(), resistance));
+            } else {
+                super.getResistances().add(resistance);
+            }
+        }
+    }
+
+    @Override
+    public void addStatusEffect(Tag effect) {
+        if (!getStatusEffects().contains(effect)) {
+            if (super.getStatusEffects() == null) {
+                setStatusEffects(Tag.setOf(base.getStatusEffects(), effect));
+            } else {
+                super.getStatusEffects().add(effect);
+            }
+        }
+    }
+
+    @Override
+    public void addWeakness(Tag weakness) {
+        if (!getWeaknesses().contains(weakness)) {
+            if (super.getWeaknesses() == null) {
+                setWeaknesses(Tag.setOf(base.getWeaknesses(), weakness));
+            } else {
+                super.getWeaknesses().add(weakness);
+            }
+        }
+    }
+
+    /**
+     * Materializes the candidate as a standalone enemy, e.g. for the API response.
+     */
+    public Enemy toEnemy() {
+        Enemy enemy = new Enemy(getName(), getType());
+        enemy.setRegion(getRegion());
+        enemy.setHp(getHp());
+        enemy.setDamage(getDamage());
+        enemy.setDefense(getDefense());
+        enemy.setBehaviour(getBehaviour());
+        enemy.setScore(getScore());
+
+        enemy.getAbilities().addAll(getAbilities());
+        enemy.getResistances().addAll(getResistances());
+        enemy.getStatusEffects().addAll(getStatusEffects());
+        enemy.getWeaknesses().addAll(getWeaknesses());
+
+        return enemy;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ftn.sbnz.model.models;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.kie.api.runtime.rule.AccumulateFunction;
+
+/**
+ * Accumulate function behind rankCandidates in final.drl. The forward rules take
+ * the candidates from the enemyCandidates global, so the engine only calls
+ * accumulate and the ranking is a sort by score. reverse only runs for rules that
+ * match the candidates as facts, like the legacy rules of the benchmarks, where it
+ * updates the ranking one modified candidate at a time.
+ */
+public class RankCandidatesFunction implements AccumulateFunction<CandidateRanking> {
+
+    @Override
+    public CandidateRanking createContext() {
+        return new CandidateRanking();
+    }
+
+    @Override
+    public void init(CandidateRanking ranking) {
+        ranking.clear();
+    }
+
+    @Override
+    public void accumulate(CandidateRanking ranking, Object value) {
+        ranking.add((EnemyCandidate) value);
+    }
+
+    @Override
+    public void reverse(CandidateRanking ranking, Object value) {
+        ranking.remove((EnemyCandidate) value);
+    }
+
+    @Override
+    public Object getResult(CandidateRanking ranking) {
+        return ranking;
+    }
+
+    @Override
+    public boolean supportsReverse() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getResultType() {
+        return CandidateRanking.class;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+    }
+}
@@ -5,6 +5,7 @@ import java.io.Serializable;
 public class SelectionResult implements Serializable {
     private static final long serialVersionID = 1L;
     private Enemy selectedEnemy;
+    private CandidateRanking ranking;
     
     public SelectionResult() {}
 
@@ -12,6 +13,11 @@ public class SelectionResult implements Serializable {
         this.selectedEnemy = selectedEnemy;
     }
 
+    public SelectionResult(Enemy selectedEnemy, CandidateRanking ranking)  {
+        this.selectedEnemy = selectedEnemy;
+        this.ranking = ranking;
+    }
+
     public Enemy getSelectedEnemy() {
         return selectedEnemy;
     }
@@ -19,4 +25,9 @@ public class SelectionResult implements Serializable {
     public void setSelectedEnemy(Enemy selectedEnemy) {
         this.selectedEnemy = selectedEnemy;
     }
+
+    /** Ranking of all candidates the selection was made from, live until the session is reset. */
+    public CandidateRanking getRanking() {
+        return ranking;
+    }
 }
@@ -0,0 +1,134 @@
+package com.ftn.sbnz.model.models;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Closed vocabulary of enemy abilities, resistances, status effects and
+ * weaknesses. Enemies hold their tags in EnumSets, which for this many
+ * constants are a single long bitmask, so the {@code contains} checks in the
+ * rules are a bit test instead of a string comparison per element.
+ * <p>
+ * The label is what is stored in the database and sent as JSON, so both keep
+ * the readable strings they had before.
+ */
+public enum Tag {
+    BLEED("bleed"),
+    BURN("burn"),
+    CHARGE("charge"),
+    DIVE_ATTACK("dive-attack"),
+    EARTH_SLAM("earth-slam"),
+    ENTANGLE("entangle"),
+    FIRE("fire"),
+    FIRE_BREATH("fire-breath"),
+    FLYING("flying"),
+    FREEZE("freeze"),
+    GROUND_SLAM("ground-slam"),
+    HOLY("holy"),
+    ICE("ice"),
+    INTIMIDATION("intimidation"),
+    LIGHTNING("lightning"),
+    MAGIC("magic"),
+    MELEE("melee"),
+    MULTI_ATTACK("multi-attack"),
+    NATURE_MAGIC("nature-magic"),
+    PACK_TACTICS("pack-tactics"),
+    PHYSICAL("physical"),
+    POISON("poison"),
+    POISON_SPIT("poison-spit"),
+    POISON_STING("poison-sting"),
+    RANGED("ranged"),
+    REGENERATION("regeneration"),
+    ROOT_GRAB("root-grab"),
+    SAND_BLAST("sand-blast"),
+    SAND_BLIND("sand-blind"),
+    SAND_VEIL("sand-veil"),
+    SHIELD_BASH("shield-bash"),
+    SLOW("slow"),
+    STEALTH("stealth"),
+    STUN("stun"),
+    TAIL_SWIPE("tail-swipe"),
+    TELEPORT("teleport"),
+    WATER("water"),
+    WIND("wind");
+
+    private static Logger log = LoggerFactory.getLogger(Tag.class);
+
+    private static final Map<String, Tag> BY_LABEL = new HashMap<>();
+
+    static {
+        for (Tag tag : values()) {
+            BY_LABEL.put(tag.label, tag);
+        }
+    }
+
+    private final String label;
+
+    Tag(String label) {
+        this.label = label;
+    }
+
+    @JsonValue
+    public String getLabel() { return label; }
+
+    /**
+     * Returns the tag with the given label, or null if it is not part of the vocabulary.
+     */
+    public static Tag find(String label) {
+        return label != null ? BY_LABEL.get(label) : null;
+    }
+
+    @JsonCreator
+    public static Tag of(String label) {
+        Tag tag = find(label);
+        if (tag == null) {
+            throw new IllegalArgumentException("Unknown tag: " + label);
+        }
+        return tag;
+    }
+
+    public static EnumSet<Tag> setOf(Collection<Tag> tags) {
+        EnumSet<Tag> set = EnumSet.noneOf(Tag.class);
+        set.addAll(tags);
+        return set;
+    }
+
+    /**
+     * Returns the tags with the given labels. Labels outside the vocabulary are
+     * logged and skipped, as on the catalog read path, so a client that sends a
+     * free-text tag still gets its enemy.
+     */
+    public static EnumSet<Tag> setOfLabels(Collection<String> labels) {
+        EnumSet<Tag> set = EnumSet.noneOf(Tag.class);
+        if (labels == null) {
+            return set;
+        }
+        for (String label : labels) {
+            Tag tag = find(label);
+            if (tag != null) {
+                set.add(tag);
+            } else {
+                log.warn("Skipping unknown tag '{}'", label);
+            }
+        }
+        return set;
+    }
+
+    /** Returns a copy of the given tags with one more tag. */
+    public static EnumSet<Tag> setOf(Collection<Tag> tags, Tag tag) {
+        EnumSet<Tag> set = setOf(tags);
+        set.add(tag);
+        return set;
+    }
+
+    @Override
+    public String toString() { return label; }
+}
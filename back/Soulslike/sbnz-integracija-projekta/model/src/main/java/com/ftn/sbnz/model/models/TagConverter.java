@@ -0,0 +1,24 @@
+package com.ftn.sbnz.model.models;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores tags by their label. A label that is no longer part of the vocabulary
+ * fails the load instead of being read as null, which an EnumSet cannot hold;
+ * the read-only catalog queries select the labels themselves and skip unknown
+ * ones with a warning naming the enemy.
+ */
+@Converter
+public class TagConverter implements AttributeConverter<Tag, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Tag tag) {
+        return tag != null ? tag.getLabel() : null;
+    }
+
+    @Override
+    public Tag convertToEntityAttribute(String label) {
+        return label != null ? Tag.of(label) : null;
+    }
+}
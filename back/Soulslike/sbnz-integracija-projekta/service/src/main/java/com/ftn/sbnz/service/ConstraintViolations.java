@@ -0,0 +1,35 @@
+package com.ftn.sbnz.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which constraint a rejected write violated, from the constraint name that
+ * Hibernate's dialect extracted. PostgreSQL and MySQL report the constraint itself,
+ * H2 the index that backs it ({@code PUBLIC.UK_ENEMIES_REGION_NAME_INDEX_C ON
+ * PUBLIC.ENEMIES(...)}), so a constraint is matched case-insensitively anywhere in
+ * the reported name instead of parsing a vendor's format.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /** Name of the violated constraint as the dialect reported it, or null if it reported none. */
+    public static String constraintName(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String name = ((ConstraintViolationException) cause).getConstraintName();
+                return name == null || name.isBlank() ? null : name;
+            }
+        }
+        return null;
+    }
+
+    public static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String name = constraintName(e);
+        return name != null && name.toLowerCase(Locale.ROOT).contains(constraint.toLowerCase(Locale.ROOT));
+    }
+}
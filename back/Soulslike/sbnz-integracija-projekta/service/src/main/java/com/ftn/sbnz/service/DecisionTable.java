@@ -0,0 +1,366 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Forward generation results precomputed for every region of the catalog and
+ * every combination of difficulty, weather, time of day, player level and player
+ * class. Each region is a dense array, so a lookup is a few index computations.
+ * <p>
+ * The level is a dimension of its own, 1..max-level, rather than a band: besides
+ * the level bands of the rules, "Reward Balanced Enemy" compares the exact level
+ * with the enemy hp. Contexts with other values (unknown weather, higher level, no
+ * player) are not in the table and are evaluated live.
+ * <p>
+ * The table is built in the background whenever the catalog or the forward rules
+ * have a new version; until it is ready lookups miss. A region whose enemies and
+ * rules did not change keeps its previous row.
+ */
+@Component
+public class DecisionTable {
+
+    private static Logger log = LoggerFactory.getLogger(DecisionTable.class);
+
+    /** Evaluates contexts of one region with the live rules, leaving null for failures. */
+    interface GroupEvaluator {
+        void evaluate(List<GameContext> contexts, List<Enemy> regionEnemies, Enemy[] results);
+    }
+
+    @Value("${enemy.decision-table.enabled:false}")
+    private boolean enabled;
+
+    @Value("${enemy.decision-table.difficulties:easy,medium,medium-hard,hard}")
+    private List<String> difficulties;
+
+    @Value("${enemy.decision-table.weathers:clear,rain,fog,snow,sandstorm}")
+    private List<String> weathers;
+
+    @Value("${enemy.decision-table.times-of-day:day,night}")
+    private List<String> timesOfDay;
+
+    @Value("${enemy.decision-table.max-level:100}")
+    private int maxLevel;
+
+    @Value("${enemy.decision-table.parallelism:0}")
+    private int parallelism;
+
+    @Value("${enemy.session-pool.max-size:16}")
+    private int sessionPoolSize;
+
+    private final Map<String, Integer> difficultyIndex = new HashMap<>();
+    private final Map<String, Integer> weatherIndex = new HashMap<>();
+    private final Map<String, Integer> timeIndex = new HashMap<>();
+    private final Player.PlayerClass[] playerClasses = Player.PlayerClass.values();
+
+    private final AtomicBoolean building = new AtomicBoolean();
+    private ExecutorService buildExecutor;
+
+    private volatile Matrix matrix;
+    private volatile String lastError;
+
+    private final Counter answered;
+    private final Counter outside;
+    private final Counter stale;
+
+    @Autowired
+    public DecisionTable(MeterRegistry registry) {
+        answered = Counter.builder("enemy.decision-table.lookups")
+            .description("Forward generation requests looked up in the decision table")
+            .tag("result", "answered")
+            .register(registry);
+        outside = Counter.builder("enemy.decision-table.lookups")
+            .tag("result", "outside")
+            .register(registry);
+        stale = Counter.builder("enemy.decision-table.lookups")
+            .tag("result", "stale")
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        index(difficulties, difficultyIndex);
+        index(weathers, weatherIndex);
+        index(timesOfDay, timeIndex);
+
+        int threads = buildThreads();
+        AtomicInteger threadCounter = new AtomicInteger();
+        buildExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "enemy-decision-table-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Every build thread holds a session of the forward pool for its slice, so the
+     * build takes at most a quarter of the pool by default and never more than
+     * half, whatever enemy.decision-table.parallelism says. The rest stays free
+     * for live requests while a build runs.
+     */
+    private int buildThreads() {
+        int limit = Math.max(1, sessionPoolSize / 2);
+        int threads = parallelism > 0 ? parallelism
+            : Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, sessionPoolSize / 4));
+        if (threads > limit) {
+            log.warn("Decision table parallelism {} capped to {}, half of the {} pooled sessions",
+                threads, limit, sessionPoolSize);
+            threads = limit;
+        }
+        return threads;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (buildExecutor != null) {
+            buildExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isCurrent(long catalogVersion, String ruleVersion) {
+        Matrix current = matrix;
+        return current != null && current.catalogVersion == catalogVersion
+            && Objects.equals(current.ruleVersion, ruleVersion);
+    }
+
+    /**
+     * Returns the precomputed enemy for the context, or null if the table is not
+     * built for these versions yet or does not cover the context. The enemy is
+     * shared by all callers.
+     */
+    public Enemy lookup(GameContext context, long catalogVersion, String ruleVersion) {
+        if (!isCurrent(catalogVersion, ruleVersion)) {
+            stale.increment();
+            return null;
+        }
+        Enemy[] row = matrix.rows.get(context.getRegion());
+        int cell = cell(context);
+        Enemy enemy = row != null && cell >= 0 ? row[cell] : null;
+        if (enemy == null) {
+            outside.increment();
+            return null;
+        }
+        answered.increment();
+        return enemy;
+    }
+
+    /**
+     * Starts building the table for the catalog snapshot and rule version in the
+     * background, unless a build is already running.
+     */
+    public void rebuild(EnemyCatalog.Snapshot catalog, String ruleVersion, GroupEvaluator evaluator) {
+        if (!enabled || isCurrent(catalog.getVersion(), ruleVersion) || !building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            build(catalog, ruleVersion, evaluator).whenComplete((ignored, e) -> {
+                building.set(false);
+                if (e != null) {
+                    lastError = e.getMessage();
+                    log.error("Building decision table for catalog version {} failed", catalog.getVersion(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            building.set(false);
+            throw e;
+        }
+    }
+
+    /** Queues the slices of the changed regions; the table is published when the last one is done. */
+    private CompletableFuture<Void> build(EnemyCatalog.Snapshot catalog, String ruleVersion, GroupEvaluator evaluator) {
+        long start = System.nanoTime();
+        Matrix previous = matrix;
+        boolean sameRules = previous != null && Objects.equals(previous.ruleVersion, ruleVersion);
+
+        Map<String, Enemy[]> rows = new LinkedHashMap<>();
+        Map<String, List<Enemy>> sources = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        int reusedRegions = 0;
+        for (String region : catalog.getRegions()) {
+            List<Enemy> regionEnemies = catalog.getEnemies(region);
+            sources.put(region, regionEnemies);
+            if (sameRules && sameEnemies(previous.sources.get(region), regionEnemies)) {
+                rows.put(region, previous.rows.get(region));
+                reusedRegions++;
+                continue;
+            }
+            Enemy[] row = new Enemy[cellsPerRegion()];
+            rows.put(region, row);
+            // One task per difficulty and weather, evaluated with one session like a batch group
+            for (int d = 0; d < difficulties.size(); d++) {
+                for (int w = 0; w < weathers.size(); w++) {
+                    int difficulty = d;
+                    int weather = w;
+                    tasks.add(CompletableFuture.runAsync(
+                        () -> buildSlice(region, regionEnemies, difficulty, weather, row, evaluator), buildExecutor));
+                }
+            }
+        }
+        int reused = reusedRegions;
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).thenRun(() -> {
+            long elapsed = System.nanoTime() - start;
+            Matrix built = new Matrix(catalog.getVersion(), ruleVersion, rows, sources,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), reused);
+            matrix = built;
+            lastError = null;
+            log.info("Built decision table for catalog version {} and rules {} in {} ms: {} regions ({} reused), {} of {} cells",
+                built.catalogVersion, ruleVersion, built.buildMillis, rows.size(), reused, built.filled, built.cells);
+        });
+    }
+
+    private void buildSlice(String region, List<Enemy> regionEnemies, int difficulty, int weather,
+                            Enemy[] row, GroupEvaluator evaluator) {
+        List<GameContext> contexts = new ArrayList<>();
+        List<Integer> cells = new ArrayList<>();
+        for (int t = 0; t < timesOfDay.size(); t++) {
+            for (int level = 1; level <= maxLevel; level++) {
+                for (int c = 0; c < playerClasses.length; c++) {
+                    Player player = new Player("decision-table", level, playerClasses[c], null);
+                    contexts.add(new GameContext(region, difficulties.get(difficulty), weathers.get(weather),
+                        timesOfDay.get(t), player));
+                    cells.add(cell(difficulty, weather, t, level, c));
+                }
+            }
+        }
+
+        Enemy[] results = new Enemy[contexts.size()];
+        evaluator.evaluate(contexts, regionEnemies, results);
+        for (int i = 0; i < results.length; i++) {
+            row[cells.get(i)] = results[i];
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Matrix current = matrix;
+        double lookups = answered.count() + outside.count() + stale.count();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("building", building.get());
+        stats.put("catalogVersion", current != null ? current.catalogVersion : null);
+        stats.put("ruleVersion", current != null ? current.ruleVersion : null);
+        stats.put("builtAt", current != null ? current.builtAt : null);
+        stats.put("buildMs", current != null ? current.buildMillis : null);
+        stats.put("regions", current != null ? current.rows.keySet() : List.of());
+        stats.put("reusedRegions", current != null ? current.reused : 0);
+        stats.put("cellsPerRegion", cellsPerRegion());
+        stats.put("cells", current != null ? current.cells : 0);
+        stats.put("filledCells", current != null ? current.filled : 0);
+        stats.put("answered", (long) answered.count());
+        stats.put("outside", (long) outside.count());
+        stats.put("stale", (long) stale.count());
+        stats.put("coverage", lookups > 0 ? answered.count() / lookups : 0.0);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private int cellsPerRegion() {
+        return difficulties.size() * weathers.size() * timesOfDay.size() * maxLevel * playerClasses.length;
+    }
+
+    /** Index of the context in its region row, or -1 if it is outside the table. */
+    private int cell(GameContext context) {
+        Player player = context.getPlayer();
+        Integer difficulty = difficultyIndex.get(context.getDifficulty());
+        Integer weather = weatherIndex.get(context.getWeather());
+        Integer time = timeIndex.get(context.getTimeOfDay());
+        if (difficulty == null || weather == null || time == null || player == null
+            || player.getPlayerClass() == null || player.getLevel() < 1 || player.getLevel() > maxLevel) {
+            return -1;
+        }
+        return cell(difficulty, weather, time, player.getLevel(), player.getPlayerClass().ordinal());
+    }
+
+    private int cell(int difficulty, int weather, int time, int level, int playerClass) {
+        int index = difficulty;
+        index = index * weathers.size() + weather;
+        index = index * timesOfDay.size() + time;
+        index = index * maxLevel + (level - 1);
+        return index * playerClasses.length + playerClass;
+    }
+
+    private static boolean sameEnemies(List<Enemy> previous, List<Enemy> current) {
+        if (previous == null || previous.size() != current.size()) {
+            return false;
+        }
+        // Snapshots share the detached enemies that did not change, so identity is enough
+        for (int i = 0; i < current.size(); i++) {
+            if (previous.get(i) != current.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void index(List<String> values, Map<String, Integer> index) {
+        index.clear();
+        for (int i = 0; i < values.size(); i++) {
+            index.put(values.get(i), i);
+        }
+    }
+
+    private static class Matrix {
+        private final long catalogVersion;
+        private final String ruleVersion;
+        private final Map<String, Enemy[]> rows;
+        private final Map<String, List<Enemy>> sources;
+        private final long buildMillis;
+        private final long builtAt = System.currentTimeMillis();
+        private final int reused;
+        private final int cells;
+        private final int filled;
+
+        private Matrix(long catalogVersion, String ruleVersion, Map<String, Enemy[]> rows,
+                       Map<String, List<Enemy>> sources, long buildMillis, int reused) {
+            this.catalogVersion = catalogVersion;
+            this.ruleVersion = ruleVersion;
+            this.rows = rows;
+            this.sources = sources;
+            this.buildMillis = buildMillis;
+            this.reused = reused;
+
+            int cells = 0;
+            int filled = 0;
+            for (Enemy[] row : rows.values()) {
+                cells += row.length;
+                for (Enemy enemy : row) {
+                    if (enemy != null) {
+                        filled++;
+                    }
+                }
+            }
+            this.cells = cells;
+            this.filled = filled;
+        }
+    }
+}
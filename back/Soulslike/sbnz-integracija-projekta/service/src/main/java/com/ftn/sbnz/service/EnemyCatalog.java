@@ -0,0 +1,175 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.Tag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * In-memory, region-partitioned copy of the enemies table. Readers get an
+ * immutable snapshot without locking; every change publishes a new snapshot
+ * with a higher version.
+ */
+@Component
+public class EnemyCatalog {
+
+    private static Logger log = LoggerFactory.getLogger(EnemyCatalog.class);
+
+    private final EnemyRepository enemyRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final Object writeLock = new Object();
+
+    private volatile boolean loaded;
+    private volatile long lastLoadAttempt;
+
+    @Value("${enemy.catalog.retry-interval-ms:10000}")
+    private long retryIntervalMs;
+
+    @Autowired
+    public EnemyCatalog(EnemyRepository enemyRepository, PlatformTransactionManager transactionManager) {
+        this.enemyRepository = enemyRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    public Snapshot current() {
+        if (!loaded && System.currentTimeMillis() - lastLoadAttempt >= retryIntervalMs) {
+            refresh();
+        }
+        return snapshot.get();
+    }
+
+    public Snapshot refresh() {
+        synchronized (writeLock) {
+            lastLoadAttempt = System.currentTimeMillis();
+            try {
+                List<Enemy> enemies = readOnlyTransaction.execute(status -> {
+                    List<Enemy> detached = new ArrayList<>();
+                    for (Enemy enemy : enemyRepository.findAllReadOnly()) {
+                        detached.add(detach(enemy));
+                    }
+                    return detached;
+                });
+                Snapshot published = publish(enemies);
+                loaded = true;
+                log.info("Loaded enemy catalog version {} with {} enemies in {} regions",
+                    published.getVersion(), published.size(), published.getRegions().size());
+                return published;
+            } catch (Exception e) {
+                log.warn("Could not load enemy catalog from database: {}", e.getMessage());
+                return snapshot.get();
+            }
+        }
+    }
+
+    public Snapshot enemyCreated(Enemy enemy) {
+        synchronized (writeLock) {
+            List<Enemy> enemies = new ArrayList<>(snapshot.get().getAll());
+            enemies.add(detach(enemy));
+            return publish(enemies);
+        }
+    }
+
+    public Snapshot enemyDeleted(Long id) {
+        synchronized (writeLock) {
+            List<Enemy> enemies = new ArrayList<>(snapshot.get().getAll());
+            enemies.removeIf(enemy -> Objects.equals(enemy.getId(), id));
+            return publish(enemies);
+        }
+    }
+
+    private Snapshot publish(List<Enemy> enemies) {
+        Snapshot published = new Snapshot(snapshot.get().getVersion() + 1, enemies);
+        snapshot.set(published);
+        log.debug("Published enemy catalog version {}", published.getVersion());
+        return published;
+    }
+
+    private Enemy detach(Enemy original) {
+        Enemy copy = new Enemy(original.getName(), original.getType());
+        copy.setId(original.getId());
+        copy.setRegion(original.getRegion());
+        copy.setHp(original.getHp());
+        copy.setDamage(original.getDamage());
+        copy.setDefense(original.getDefense());
+        copy.setBehaviour(original.getBehaviour());
+        copy.setScore(original.getScore());
+
+        // Catalog enemies are shared by all requests, so their collections are immutable
+        copy.setAbilities(Collections.unmodifiableSet(Tag.setOf(original.getAbilities())));
+        copy.setResistances(Collections.unmodifiableSet(Tag.setOf(original.getResistances())));
+        copy.setStatusEffects(Collections.unmodifiableSet(Tag.setOf(original.getStatusEffects())));
+        copy.setWeaknesses(Collections.unmodifiableSet(Tag.setOf(original.getWeaknesses())));
+
+        return copy;
+    }
+
+    public static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(0, Collections.emptyList());
+
+        private final long version;
+        private final long publishedAt = System.currentTimeMillis();
+        private final List<Enemy> all;
+        private final Map<String, List<Enemy>> byRegion;
+        private final Map<String, List<Enemy>> byName;
+
+        private Snapshot(long version, List<Enemy> enemies) {
+            this.version = version;
+            this.all = Collections.unmodifiableList(new ArrayList<>(enemies));
+
+            this.byRegion = partition(enemies, Enemy::getRegion);
+            this.byName = partition(enemies, Enemy::getName);
+        }
+
+        private static Map<String, List<Enemy>> partition(List<Enemy> enemies, Function<Enemy, String> key) {
+            Map<String, List<Enemy>> partitions = new LinkedHashMap<>();
+            for (Enemy enemy : enemies) {
+                partitions.computeIfAbsent(key.apply(enemy), k -> new ArrayList<>()).add(enemy);
+            }
+            partitions.replaceAll((k, partition) -> Collections.unmodifiableList(partition));
+            return Collections.unmodifiableMap(partitions);
+        }
+
+        public long getVersion() { return version; }
+
+        public long getPublishedAt() { return publishedAt; }
+
+        public List<Enemy> getAll() { return all; }
+
+        public List<Enemy> getEnemies(String region) {
+            return byRegion.getOrDefault(region, Collections.emptyList());
+        }
+
+        public List<Enemy> getEnemiesNamed(String name) {
+            return byName.getOrDefault(name, Collections.emptyList());
+        }
+
+        public Set<String> getRegions() { return byRegion.keySet(); }
+
+        public int size() { return all.size(); }
+    }
+}
@@ -5,36 +5,395 @@ import com.ftn.sbnz.model.models.Enemy;
 import com.ftn.sbnz.model.models.GameContext;
 import com.ftn.sbnz.model.models.Player;
 
+import io.micrometer.core.annotation.Timed;
 import org.apache.tools.ant.taskdefs.condition.Http;
 import org.kie.api.runtime.KieSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/enemy")
 public class EnemyGenerationController {
+
+    static final String RULE_VERSION_HEADER = "X-Rule-Version";
     
     @Autowired
     private EnemyGenerationService enemyService;
 
     @Autowired
     private EnemyRepository enemyRepository;
+
+    @Autowired
+    private EnemyCatalog enemyCatalog;
+
+    @Autowired
+    private RuleTracing ruleTracing;
+
+    @Autowired
+    private GenerationExecutor generationExecutor;
+
+    @Autowired
+    private GenerationCoalescer generationCoalescer;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor streamExecutor;
+
+    @Value("${enemy.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${enemy.ranked.max-k:50}")
+    private int maxRankedK;
+
+    @Value("${enemy.stream.max-count:500}")
+    private int maxStreamCount;
+
+    @Value("${enemy.stream.timeout-ms:60000}")
+    private long streamTimeoutMs;
     
     @PostMapping("/generate/forward")
-    public Enemy generateEnemyForward(@RequestBody GameContext context) {
-        return enemyService.generateEnemy(context);
+    @Timed(value = "enemy.generation", extraTags = {"mode", "forward"}, histogram = true)
+    public CompletableFuture<ResponseEntity<?>> generateEnemyForward(@RequestBody GameContext context,
+                                                                     @RequestParam(defaultValue = "false") boolean trace) {
+        RuleTrace ruleTrace = ruleTracing.begin(trace);
+        if (ruleTrace != null) {
+            // Traced requests run their own evaluation, so that the trace has firings
+            return evaluate(() -> traced("forward", enemyService.generateEnemyResult(context, ruleTrace), ruleTrace));
+        }
+        
+        try {
+            return generationCoalescer.join(context,
+                    () -> generationExecutor.submit(() -> enemyService.generateEnemyResult(context, null)))
+                .<ResponseEntity<?>>thenApply(EnemyGenerationController::ok)
+                .exceptionally(error -> {
+                    // A follower whose leader could not be queued is rejected the same way
+                    if (error.getCause() instanceof RejectedExecutionException) {
+                        return unavailable();
+                    }
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(unavailable());
+        }
+    }
+    
+    @PostMapping("/generate/forward/ranked")
+    @Timed(value = "enemy.generation", extraTags = {"mode", "ranked"}, histogram = true)
+    public CompletableFuture<ResponseEntity<?>> generateRankedEnemies(@RequestBody GameContext context,
+                                                                      @RequestParam(defaultValue = "5") int k) {
+        if (k < 1 || k > maxRankedK) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Map.of(
+                    "error", "k must be between 1 and " + maxRankedK,
+                    "maxK", maxRankedK
+                )));
+        }
+        
+        return evaluate(() -> ok(enemyService.generateRankedEnemiesResult(context, k)));
+    }
+    
+    @PostMapping("/generate/forward/batch")
+    @Timed(value = "enemy.generation", extraTags = {"mode", "batch"}, histogram = true)
+    public CompletableFuture<ResponseEntity<?>> generateEnemiesForward(@RequestBody List<GameContext> contexts) {
+        if (contexts == null || contexts.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Map.of("error", "At least one game context is required")));
+        }
+        
+        if (contexts.size() > maxBatchSize) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of(
+                    "error", "Batch contains " + contexts.size() + " contexts",
+                    "maxBatchSize", maxBatchSize
+                )));
+        }
+        
+        if (contexts.contains(null)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Map.of("error", "Game contexts must not be null")));
+        }
+        
+        try {
+            return enemyService.generateEnemiesResult(contexts).thenApply(EnemyGenerationController::ok);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(unavailable());
+        }
+    }
+    
+    /**
+     * Streams an encounter of count enemies for the context, writing every enemy as
+     * soon as the rules select it. The format follows the Accept header, see
+     * streamType: Server-Sent Events for text/event-stream, one JSON enemy per line
+     * for application/x-ndjson. NDJSON is the default, for a missing Accept header
+     * and for wildcards.
+     * <p>
+     * Every enemy is a task of its own on the generation executor, which borrows a
+     * pooled session for that enemy only. The enemy is written to the client from
+     * the application task executor. A stream therefore holds no rule execution
+     * thread and no session between enemies or while the client reads.
+     * <p>
+     * The response starts with the first enemy, so X-Rule-Version is the version of
+     * the rules that selected it. If the rules are swapped during the encounter, the
+     * stream ends at the swap. It also ends early when the client goes away or the
+     * stream times out. A bad count or a full executor is answered as JSON with its
+     * status, like the other generation endpoints.
+     */
+    @PostMapping(value = "/generate/forward/stream",
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    @Timed(value = "enemy.generation", extraTags = {"mode", "stream"}, histogram = true)
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> streamEnemies(
+            @RequestBody GameContext context,
+            @RequestParam(defaultValue = "10") int count,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (count < 1 || count > maxStreamCount) {
+            return CompletableFuture.completedFuture(asStream(ResponseEntity.badRequest()
+                .body(Map.of(
+                    "error", "count must be between 1 and " + maxStreamCount,
+                    "maxCount", maxStreamCount
+                ))));
+        }
+        
+        MediaType mediaType = streamType(accept);
+        EncounterStream stream = MediaType.TEXT_EVENT_STREAM.equals(mediaType)
+            ? sseStream(enemyService.startEncounter(context), count)
+            : ndjsonStream(enemyService.startEncounter(context), count);
+        CompletableFuture<RuleResult<Enemy>> first;
+        try {
+            first = stream.generate();
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(asStream(unavailable()));
+        }
+        
+        return first.thenApply(result -> {
+            stream.ruleVersion = result.getRuleVersion();
+            streamExecutor.execute(() -> stream.write(result, null));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(mediaType);
+            if (result.getRuleVersion() != null) {
+                response.header(RULE_VERSION_HEADER, result.getRuleVersion());
+            }
+            return response.body(stream.emitter);
+        });
+    }
+
+    /**
+     * The stream format the Accept header asks for. The accepted types are tried by
+     * quality and specificity. The first that NDJSON or text/event-stream satisfies
+     * decides, and NDJSON wins ties, so a missing header and wildcards get NDJSON.
+     */
+    static MediaType streamType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return MediaType.APPLICATION_NDJSON;
+            }
+            if (type.isCompatibleWith(MediaType.TEXT_EVENT_STREAM)) {
+                return MediaType.TEXT_EVENT_STREAM;
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    private EncounterStream ndjsonStream(EnemyGenerationService.Encounter encounter, int count) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+        return new EncounterStream(encounter, count, emitter, (index, enemy) -> {
+            emitter.send(enemy, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        }, produced -> emitter.complete());
+    }
+
+    private EncounterStream sseStream(EnemyGenerationService.Encounter encounter, int count) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        return new EncounterStream(encounter, count, emitter, (index, enemy) ->
+            emitter.send(SseEmitter.event()
+                .id(String.valueOf(index))
+                .name("enemy")
+                .data(enemy, MediaType.APPLICATION_JSON)),
+            produced -> {
+                emitter.send(SseEmitter.event()
+                    .name("complete")
+                    .data(Map.of("count", produced), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            });
+    }
+
+    /**
+     * One streamed encounter. Generating an enemy and writing it alternate: the next
+     * enemy is queued on the generation executor only after the previous one was
+     * written, so a slow client slows its own stream down and nobody else's.
+     */
+    private final class EncounterStream {
+        private final EnemyGenerationService.Encounter encounter;
+        private final int count;
+        private final ResponseBodyEmitter emitter;
+        private final StreamWriter writer;
+        private final StreamCompletion completion;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile String ruleVersion;
+        private int produced;
+
+        private EncounterStream(EnemyGenerationService.Encounter encounter, int count, ResponseBodyEmitter emitter,
+                                StreamWriter writer, StreamCompletion completion) {
+            this.encounter = encounter;
+            this.count = count;
+            this.emitter = emitter;
+            this.writer = writer;
+            this.completion = completion;
+            emitter.onCompletion(() -> cancelled.set(true));
+            emitter.onTimeout(() -> cancelled.set(true));
+            emitter.onError(error -> cancelled.set(true));
+        }
+
+        /**
+         * Queues the next enemy on the generation executor.
+         *
+         * @throws RejectedExecutionException if the queue is full
+         */
+        private CompletableFuture<RuleResult<Enemy>> generate() {
+            return generationExecutor.submit(() -> enemyService.nextEncounterEnemy(encounter));
+        }
+
+        /** Writes a generated enemy and queues the next one, on the stream executor. */
+        private void write(RuleResult<Enemy> result, Throwable error) {
+            if (cancelled.get()) {
+                return;
+            }
+            try {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                    return;
+                }
+                String version = result.getRuleVersion();
+                if (version != null && ruleVersion != null && !version.equals(ruleVersion)) {
+                    // The header promised the rules the stream started with
+                    completion.complete(produced);
+                    return;
+                }
+                writer.write(produced++, result.getValue());
+                if (produced >= count) {
+                    completion.complete(produced);
+                    return;
+                }
+                generate().whenCompleteAsync(this::write, streamExecutor);
+            } catch (RejectedExecutionException e) {
+                emitter.completeWithError(e);
+            } catch (IOException | IllegalStateException e) {
+                // The client closed the connection
+                cancelled.set(true);
+            }
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> asStream(ResponseEntity<?> response) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            emitter.send(response.getBody(), MediaType.APPLICATION_JSON);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(emitter);
+    }
+
+    @FunctionalInterface
+    private interface StreamWriter {
+        void write(int index, Enemy enemy) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface StreamCompletion {
+        void complete(int produced) throws IOException;
     }
     
     @PostMapping("/generate/backward")
-    public Enemy generateEnemyBackward(@RequestBody BackwardQuery query) {
-        return enemyService.findSpecificEnemy(query);
+    @Timed(value = "enemy.generation", extraTags = {"mode", "backward"}, histogram = true)
+    public CompletableFuture<ResponseEntity<?>> generateEnemyBackward(@RequestBody BackwardQuery query,
+                                                                      @RequestParam(defaultValue = "false") boolean trace,
+                                                                      @RequestParam(required = false) String validation) {
+        if (validation != null) {
+            query.setValidationMode(validation);
+        }
+        if (query.getValidationMode() != null
+            && !EnemyGenerationService.VALIDATION_MODES.contains(query.getValidationMode())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Map.of(
+                    "error", "Unknown validation mode " + query.getValidationMode(),
+                    "validationModes", EnemyGenerationService.VALIDATION_MODES
+                )));
+        }
+        
+        RuleTrace ruleTrace = ruleTracing.begin(trace);
+        return evaluate(() -> traced("backward", enemyService.findSpecificEnemyResult(query, ruleTrace), ruleTrace));
+    }
+
+    /**
+     * Runs the rule evaluation on the generation executor. When its queue is full
+     * the caller gets 503 right away, with Retry-After, instead of waiting.
+     */
+    private CompletableFuture<ResponseEntity<?>> evaluate(Supplier<ResponseEntity<?>> evaluation) {
+        try {
+            return generationExecutor.submit(evaluation);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(unavailable());
+        }
+    }
+
+    private ResponseEntity<?> unavailable() {
+        int retryAfter = generationExecutor.getRetryAfterSeconds();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+            .body(Map.of(
+                "error", "Enemy generation is at capacity",
+                "retryAfterSeconds", retryAfter
+            ));
+    }
+
+    private ResponseEntity<?> traced(String operation, RuleResult<Enemy> result, RuleTrace ruleTrace) {
+        ruleTracing.complete(operation, ruleTrace);
+        if (ruleTrace == null || !ruleTrace.isRequested()) {
+            return ok(result);
+        }
+        return ok(RuleResult.of(Map.of("enemy", result.getValue(), "trace", ruleTrace), result.getRuleVersion()));
+    }
+
+    /**
+     * The rule version is the one of the KieBase that produced the result. Fallback
+     * enemies that no rules produced are sent without it.
+     */
+    private static ResponseEntity<?> ok(RuleResult<?> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getRuleVersion() != null) {
+            response.header(RULE_VERSION_HEADER, result.getRuleVersion());
+        }
+        return response.body(result.getValue());
     }
 
     @PostMapping("/create")
@@ -51,19 +410,6 @@ public class EnemyGenerationController {
                     .body(Map.of("error", "Region is required"));
             }
             
-            // Provera da li već postoji neprijatelj sa istim imenom u istom regionu
-            List<Enemy> existing = enemyRepository.findByName(enemy.getName());
-            boolean duplicateInRegion = existing.stream()
-                .anyMatch(e -> e.getRegion().equals(enemy.getRegion()));
-            
-            if (duplicateInRegion) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(Map.of(
-                        "error", "Enemy with this name already exists in this region",
-                        "suggestion", "Try a different name or region"
-                    ));
-            }
-            
             // Postavi default vrednosti ako nisu postavljene
             if (enemy.getHp() <= 0) enemy.setHp(1000);
             if (enemy.getDamage() <= 0) enemy.setDamage(100);
@@ -72,16 +418,33 @@ public class EnemyGenerationController {
             if (enemy.getBehaviour() == null) enemy.setBehaviour("aggressive");
             if (enemy.getType() == null) enemy.setType("regular");
             
-            // Sačuvaj u bazu
+            // Sačuvaj u bazu; isto ime u istom regionu odbija uk_enemies_region_name
             Enemy savedEnemy = enemyRepository.save(enemy);
+            EnemyCatalog.Snapshot catalog = enemyCatalog.enemyCreated(savedEnemy);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Enemy created successfully");
             response.put("enemy", savedEnemy);
+            response.put("catalogVersion", catalog.getVersion());
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, Enemy.UNIQUE_REGION_NAME)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of(
+                        "error", "Enemy with this name already exists in this region",
+                        "suggestion", "Try a different name or region"
+                    ));
+            }
+            String constraint = ConstraintViolations.constraintName(e);
+            if (constraint != null) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Enemy violates constraint " + constraint));
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Failed to create enemy: " + e.getMostSpecificCause().getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to create enemy: " + e.getMessage()));
@@ -91,7 +454,7 @@ public class EnemyGenerationController {
     @GetMapping("/list")
     public ResponseEntity<List<Enemy>> listAllEnemies() {
         try {
-            List<Enemy> enemies = enemyRepository.findAll();
+            List<Enemy> enemies = enemyRepository.findAllReadOnly();
             return ResponseEntity.ok(enemies);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -101,7 +464,7 @@ public class EnemyGenerationController {
     @GetMapping("/list/{region}")
     public ResponseEntity<List<Enemy>> listEnemiesByRegion(@PathVariable String region) {
         try {
-            List<Enemy> enemies = enemyRepository.findByRegion(region);
+            List<Enemy> enemies = enemyRepository.findByRegionReadOnly(region);
             return ResponseEntity.ok(enemies);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -116,9 +479,11 @@ public class EnemyGenerationController {
             }
             
             enemyRepository.deleteById(id);
+            EnemyCatalog.Snapshot catalog = enemyCatalog.enemyDeleted(id);
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "message", "Enemy deleted successfully"
+                "message", "Enemy deleted successfully",
+                "catalogVersion", catalog.getVersion()
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
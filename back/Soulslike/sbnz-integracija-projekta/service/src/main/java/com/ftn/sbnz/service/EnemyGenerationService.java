@@ -2,30 +2,32 @@ package com.ftn.sbnz.service;
 
 import com.ftn.sbnz.model.models.BackwardQuery;
 import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.EnemyCandidate;
 import com.ftn.sbnz.model.models.SelectionResult;
 import com.ftn.sbnz.model.models.GameContext;
-import com.ftn.sbnz.service.EnemyRepository;
 
-import org.drools.decisiontable.ExternalSpreadsheetCompiler;
-import org.kie.api.io.ResourceType;
-import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
-import org.kie.internal.utils.KieHelper;
-import org.kie.api.builder.Results;
-import org.kie.api.builder.Message;
 import org.kie.api.runtime.rule.QueryResults;
 import org.kie.api.runtime.rule.QueryResultsRow;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -34,126 +36,407 @@ import java.util.ArrayList;
 public class EnemyGenerationService {
     
     private static Logger log = LoggerFactory.getLogger(EnemyGenerationService.class);
-    private final KieContainer kieContainer;
-    
-    @Autowired
-    private EnemyRepository enemyRepository;
+
+    /** Agenda groups of the forward rules, in the order they fire. */
+    public static final List<String> FORWARD_PHASES = List.of(
+        "region-filter",
+        "difficulty-adjustment",
+        "player-level-adjustment",
+        "player-build-counter",
+        "weather-effects",
+        "time-of-day-effects",
+        "final-selection"
+    );
+    private final KieSessionPool sessionPool;
+    private final EnemyCatalog enemyCatalog;
+    private final RuleEngineMetrics engineMetrics;
+    private final PhasePlanner phasePlanner;
+    private final GenerationResultCache resultCache;
+    private final ForwardKieBaseCache forwardKieBaseCache;
+    private final DecisionTable decisionTable;
+    private final GenerationExecutor generationExecutor;
+
+    @Value("${enemy.backward.candidate-scope:all}")
+    private String backwardCandidateScope;
+
+    @Value("${enemy.backward.fallback-regions:}")
+    private List<String> backwardFallbackRegions;
+
+    @Value("${enemy.backward.max-candidates:1000}")
+    private int backwardMaxCandidates;
+
+    @Value("${enemy.backward.validation:recursive}")
+    private String backwardValidation;
+
+    static final List<String> VALIDATION_MODES = List.of("recursive", "flat");
     
     @Autowired
-    public EnemyGenerationService(KieContainer kieContainer) {
-        this.kieContainer = kieContainer;
+    public EnemyGenerationService(KieSessionPool sessionPool, EnemyCatalog enemyCatalog,
+                                  RuleEngineMetrics engineMetrics, PhasePlanner phasePlanner,
+                                  GenerationResultCache resultCache, ForwardKieBaseCache forwardKieBaseCache,
+                                  DecisionTable decisionTable, GenerationExecutor generationExecutor) {
+        this.sessionPool = sessionPool;
+        this.enemyCatalog = enemyCatalog;
+        this.engineMetrics = engineMetrics;
+        this.phasePlanner = phasePlanner;
+        this.resultCache = resultCache;
+        this.forwardKieBaseCache = forwardKieBaseCache;
+        this.decisionTable = decisionTable;
+        this.generationExecutor = generationExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildDecisionTable() {
+        if (decisionTable.isEnabled()) {
+            decisionTable.rebuild(enemyCatalog.current(), currentRuleVersion(), this::evaluateGroup);
+        }
     }
 
     public Enemy generateEnemy(GameContext context) {
-        log.info("Starting FORWARD CHAINING enemy generation for context: {}", context);
+        return generateEnemy(context, null);
+    }
+
+    public Enemy generateEnemy(GameContext context, RuleTrace trace) {
+        return generateEnemyResult(context, trace).getValue();
+    }
+
+    /** Same as generateEnemy, together with the version of the rules that selected the enemy. */
+    public RuleResult<Enemy> generateEnemyResult(GameContext context, RuleTrace trace) {
+        log.debug("Starting forward chaining for context: {}", context);
+        
+        EnemyCatalog.Snapshot catalog = enemyCatalog.current();
+        String ruleVersion = currentRuleVersion();
+        // Traced requests always run the rules, so that the trace has firings
+        if (trace == null) {
+            Enemy precomputed = precomputedResult(context, catalog, ruleVersion);
+            if (precomputed != null) {
+                return RuleResult.of(precomputed, ruleVersion);
+            }
+            Enemy cached = cachedResult(context, catalog, ruleVersion);
+            if (cached != null) {
+                return RuleResult.of(cached, ruleVersion);
+            }
+        }
         
-        KieSession kieSession = null;
-        List<Enemy> enemyCandidates = new ArrayList<>();
+        List<Enemy> regionEnemies = loadRegionEnemies(catalog, context.getRegion());
         
-        try {
-            InputStream template = getClass().getResourceAsStream("/templates/difficulty-adjustment.drt");
-            InputStream data = getClass().getResourceAsStream("/templates/template-data.xls");
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+            Enemy enemy = evaluateForward(lease.getSession(), context, regionEnemies, trace);
+            cacheResult(context, catalog, ruleVersion, lease, enemy);
+            return RuleResult.of(enemy, lease.getRuleVersion());
             
-            if (template != null && data != null) {
-                ExternalSpreadsheetCompiler converter = new ExternalSpreadsheetCompiler();
-                String generatedDRL = converter.compile(data, template, 3, 2);
-                log.info("=== GENERATED DRL FROM TEMPLATE ===\n{}\n=== END ===", generatedDRL);
-                
-                kieSession = createKieSessionFromDRL(generatedDRL);
-            } else {
-                log.warn("Template or data file not found, using base session");
-                kieSession = kieContainer.newKieSession("forwardChainingSession");
+        } catch (Exception e) {
+            log.error("Error in forward chaining enemy generation", e);
+            return RuleResult.of(createFallbackEnemy(context), null);
+        }
+    }
+
+    public List<Enemy> generateEnemies(List<GameContext> contexts) {
+        return generateEnemiesResult(contexts).join().getValue();
+    }
+
+    /**
+     * Same as generateEnemies, together with the versions of the rules that selected
+     * the enemies. A batch that ran across a rule swap has more than one version;
+     * they are joined with commas in the order the batch first used them.
+     * <p>
+     * Every region group is a task on the generation executor, so a batch shares the
+     * bounded queue of the other generation endpoints and no thread waits for it.
+     *
+     * @throws RejectedExecutionException if the queue cannot take every region group;
+     *         the groups queued before are skipped
+     */
+    public CompletableFuture<RuleResult<List<Enemy>>> generateEnemiesResult(List<GameContext> contexts) {
+        log.debug("Starting FORWARD CHAINING batch generation for {} contexts", contexts.size());
+        
+        Map<String, List<Integer>> regionGroups = new LinkedHashMap<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            regionGroups.computeIfAbsent(contexts.get(i).getRegion(), region -> new ArrayList<>()).add(i);
+        }
+        
+        Enemy[] results = new Enemy[contexts.size()];
+        String[] versions = new String[contexts.size()];
+        List<CompletableFuture<Void>> groupTasks = new ArrayList<>();
+        EnemyCatalog.Snapshot catalog = enemyCatalog.current();
+        String ruleVersion = currentRuleVersion();
+        
+        AtomicBoolean rejected = new AtomicBoolean();
+        
+        try {
+            for (Map.Entry<String, List<Integer>> group : regionGroups.entrySet()) {
+                groupTasks.add(generationExecutor.submit(() -> {
+                    if (!rejected.get()) {
+                        generateRegionGroup(group.getValue(), contexts, catalog, ruleVersion, results, versions);
+                    }
+                    return null;
+                }));
             }
+        } catch (RejectedExecutionException e) {
+            rejected.set(true);
+            throw e;
+        }
+        
+        return CompletableFuture.allOf(groupTasks.toArray(new CompletableFuture[0])).thenApply(done -> {
+            log.debug("Batch generation finished: {} contexts in {} region groups", contexts.size(), regionGroups.size());
             
-            kieSession.setGlobal("enemyCandidates", enemyCandidates);
-            
-            kieSession.insert(context);
-            if (context.getPlayer() != null) {
-                kieSession.insert(context.getPlayer());
+            Set<String> usedVersions = new LinkedHashSet<>();
+            for (String version : versions) {
+                if (version != null) {
+                    usedVersions.add(version);
+                }
+            }
+            return RuleResult.of(Arrays.asList(results), usedVersions.isEmpty() ? null : String.join(",", usedVersions));
+        });
+    }
+
+    private void generateRegionGroup(List<Integer> indexes, List<GameContext> contexts,
+                                     EnemyCatalog.Snapshot catalog, String ruleVersion, Enemy[] results,
+                                     String[] versions) {
+        List<Enemy> regionEnemies = catalog.getEnemies(contexts.get(indexes.get(0)).getRegion());
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+            for (int index : indexes) {
+                GameContext context = contexts.get(index);
+                Enemy known = precomputedResult(context, catalog, ruleVersion);
+                if (known == null) {
+                    known = cachedResult(context, catalog, ruleVersion);
+                }
+                if (known != null) {
+                    results[index] = known;
+                    versions[index] = ruleVersion;
+                    continue;
+                }
+                try {
+                    results[index] = evaluateForward(lease.getSession(), context, regionEnemies, null);
+                    versions[index] = lease.getRuleVersion();
+                    cacheResult(context, catalog, ruleVersion, lease, results[index]);
+                } catch (Exception e) {
+                    log.error("Error in batch generation for context: {}", context, e);
+                    results[index] = createFallbackEnemy(context);
+                } finally {
+                    lease.reset();
+                }
             }
-            
-            loadExistingEnemiesAsCopies(kieSession, context.getRegion(), enemyCandidates);
-            executeRulesInPhases(kieSession);
-            
-            Enemy selectedEnemy = getSelectedEnemyFromSession(kieSession);
-            
-            return handleResult(selectedEnemy, enemyCandidates, context);
-            
         } catch (Exception e) {
-            log.error("Error in forward chaining enemy generation", e);
-            return createFallbackEnemy(context);
-        } finally {
-            if (kieSession != null) {
-                kieSession.dispose();
+            log.error("Error in batch generation for region group", e);
+            for (int index : indexes) {
+                if (results[index] == null) {
+                    results[index] = createFallbackEnemy(contexts.get(index));
+                }
             }
         }
     }
-    
-    private KieSession createKieSessionFromDRL(String generatedDRL) {
-        KieHelper kieHelper = new KieHelper();
-        
-        kieHelper.addContent(generatedDRL, ResourceType.DRL);
-        
-        String[] ruleFiles = {
-            "/rules/enemy/region.drl",
-            "/rules/enemy/player-level.drl",
-            "/rules/enemy/build.drl",
-            "/rules/enemy/weather.drl",
-            "/rules/enemy/daytime.drl",
-            "/rules/enemy/final.drl"
-        };
-        
-        for (String ruleFile : ruleFiles) {
-            try {
-                InputStream ruleStream = getClass().getResourceAsStream(ruleFile);
-                if (ruleStream != null) {
-                    String ruleContent = readInputStream(ruleStream);
-                    kieHelper.addContent(ruleContent, ResourceType.DRL);
-                    log.info("Loaded rule file: {}", ruleFile);
-                } else {
-                    log.warn("Rule file not found: {}", ruleFile);
+
+    /** Evaluates contexts of one region for the decision table, leaving null where the rules failed. */
+    private void evaluateGroup(List<GameContext> contexts, List<Enemy> regionEnemies, Enemy[] results) {
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+            for (int i = 0; i < contexts.size(); i++) {
+                try {
+                    results[i] = evaluateForward(lease.getSession(), contexts.get(i), regionEnemies, null);
+                } catch (Exception e) {
+                    log.warn("Could not precompute enemy for context: {}", contexts.get(i), e);
+                } finally {
+                    lease.reset();
                 }
-            } catch (Exception e) {
-                log.error("Error loading rule file {}: {}", ruleFile, e.getMessage());
             }
         }
+    }
+
+    /**
+     * Runs the forward rules for the context and returns its best candidates, highest
+     * score first, as ranked during final selection.
+     */
+    public List<Enemy> generateRankedEnemies(GameContext context, int k) {
+        return generateRankedEnemiesResult(context, k).getValue();
+    }
+
+    /** Same as generateRankedEnemies, together with the version of the rules that ranked them. */
+    public RuleResult<List<Enemy>> generateRankedEnemiesResult(GameContext context, int k) {
+        log.debug("Ranking top {} enemies for context: {}", k, context);
         
-        Results results = kieHelper.verify();
-        if (results.hasMessages(Message.Level.WARNING, Message.Level.ERROR)) {
-            List<Message> messages = results.getMessages(Message.Level.WARNING, Message.Level.ERROR);
-            for (Message message : messages) {
-                log.error("DRL Compilation Error: {}", message.getText());
+        List<Enemy> regionEnemies = loadRegionEnemies(enemyCatalog.current(), context.getRegion());
+        
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+            KieSession kieSession = lease.getSession();
+            fireForward(kieSession, context, regionEnemies, null);
+            
+            SelectionResult result = getSelectionResult(kieSession);
+            if (result == null || result.getRanking() == null) {
+                log.warn("No ranking produced for context: {}", context);
+                return RuleResult.of(List.of(), lease.getRuleVersion());
             }
-            throw new IllegalStateException("DRL compilation errors found. Check logs.");
+            return RuleResult.of(result.getRanking().top(k).stream()
+                .map(entry -> entry.getCandidate().toEnemy())
+                .collect(Collectors.toList()), lease.getRuleVersion());
         }
-        
-        log.info("Successfully compiled all DRL rules");
-        return kieHelper.build().newKieSession();
     }
-    
-    private String readInputStream(InputStream inputStream) {
-        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
-            .lines()
-            .collect(Collectors.joining("\n"));
+
+    /**
+     * Starts an encounter for the context. Its enemies are generated one at a time
+     * with nextEncounterEnemy, so that a caller can release its thread and session
+     * between them.
+     */
+    public Encounter startEncounter(GameContext context) {
+        log.debug("Starting encounter for context: {}", context);
+        return new Encounter(context);
     }
 
-    private void loadExistingEnemiesAsCopies(KieSession kieSession, String region, List<Enemy> enemyCandidates) {
-        try {
-            List<Enemy> existingEnemies = enemyRepository.findByRegion(region);
-            log.info("Loaded {} existing enemies for region: {}", existingEnemies.size(), region);
+    /**
+     * Selects the next enemy of the encounter on a session borrowed for this enemy
+     * only. The whole encounter uses the catalog snapshot of its first enemy. Every
+     * enemy is selected by the rules from the region enemies not yet used in the
+     * encounter; once all of them are used, or the rules reject all that are left,
+     * the next round starts over from the full region. The first enemy of a round is
+     * the one generateEnemy returns, so it comes from the decision table or the
+     * result cache when they have it.
+     * <p>
+     * An encounter is not thread-safe: the next enemy may be generated on another
+     * thread, but only after the previous one was returned.
+     */
+    public RuleResult<Enemy> nextEncounterEnemy(Encounter encounter) {
+        GameContext context = encounter.context;
+        if (encounter.catalog == null) {
+            encounter.catalog = enemyCatalog.current();
+            encounter.ruleVersion = currentRuleVersion();
+            encounter.regionEnemies = loadRegionEnemies(encounter.catalog, context.getRegion());
+            encounter.remaining = new ArrayList<>(encounter.regionEnemies);
+        }
+        EnemyCatalog.Snapshot catalog = encounter.catalog;
+        String ruleVersion = encounter.ruleVersion;
+        
+        while (true) {
+            boolean fullRound = encounter.remaining.size() == encounter.regionEnemies.size();
+            Enemy known = fullRound ? precomputedResult(context, catalog, ruleVersion) : null;
+            if (known == null && fullRound) {
+                known = cachedResult(context, catalog, ruleVersion);
+            }
+            RuleResult<Enemy> result;
+            if (known != null) {
+                result = RuleResult.of(known, ruleVersion);
+            } else {
+                try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+                    try {
+                        Enemy enemy = evaluateForward(lease.getSession(), context, encounter.remaining, null);
+                        if (fullRound) {
+                            cacheResult(context, catalog, ruleVersion, lease, enemy);
+                        }
+                        result = RuleResult.of(enemy, lease.getRuleVersion());
+                    } catch (Exception e) {
+                        log.error("Error in encounter generation for context: {}", context, e);
+                        result = RuleResult.of(createFallbackEnemy(context), null);
+                    }
+                }
+            }
             
-            for (Enemy originalEnemy : existingEnemies) {
-                Enemy enemyCopy = createEnemyCopy(originalEnemy);
-                kieSession.insert(enemyCopy);
-                enemyCandidates.add(enemyCopy);
-                log.info("Added existing enemy to session: {}", enemyCopy.getName());
+            String name = result.getValue().getName();
+            boolean used = encounter.remaining.removeIf(candidate -> candidate.getName().equals(name));
+            if (!used && !fullRound) {
+                // The rules rejected every remaining enemy, so the next round starts early
+                encounter.remaining = new ArrayList<>(encounter.regionEnemies);
+                continue;
             }
-        } catch (Exception e) {
-            log.warn("Could not load enemies from database", e);
+            if (encounter.remaining.isEmpty()) {
+                encounter.remaining.addAll(encounter.regionEnemies);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Runs the forward rules for the context against the given enemies, without the
+     * decision table or the result cache. Used by the startup warm-up, which runs
+     * before the catalog is loaded.
+     */
+    Enemy evaluate(GameContext context, List<Enemy> regionEnemies, RuleTrace trace) {
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.FORWARD_SESSION)) {
+            return evaluateForward(lease.getSession(), context, regionEnemies, trace);
+        }
+    }
+
+    private Enemy evaluateForward(KieSession kieSession, GameContext context, List<Enemy> regionEnemies,
+                                  RuleTrace trace) {
+        List<Enemy> enemyCandidates = fireForward(kieSession, context, regionEnemies, trace);
+        return handleResult(getSelectionResult(kieSession), enemyCandidates, context);
+    }
+
+    /**
+     * Fires the forward phases with one candidate per region enemy in the
+     * enemyCandidates global and returns that list, which the region filter may
+     * have shortened.
+     */
+    private List<Enemy> fireForward(KieSession kieSession, GameContext context, List<Enemy> regionEnemies,
+                                    RuleTrace trace) {
+        List<Enemy> enemyCandidates = new ArrayList<>(regionEnemies.size());
+        for (int i = 0; i < regionEnemies.size(); i++) {
+            enemyCandidates.add(new EnemyCandidate(regionEnemies.get(i), context, i));
+        }
+        kieSession.setGlobal("enemyCandidates", enemyCandidates);
+        
+        kieSession.insert(context);
+        if (context.getPlayer() != null) {
+            kieSession.insert(context.getPlayer());
+        }
+        
+        // Pooled sessions keep their listeners across reset, so the trace is always removed here
+        if (trace != null) {
+            kieSession.addEventListener(trace);
         }
+        try {
+            executeRulesInPhases(kieSession, context, enemyCandidates, trace);
+        } finally {
+            if (trace != null) {
+                kieSession.removeEventListener(trace);
+                trace.finish();
+            }
+        }
+        return enemyCandidates;
+    }
+    
+    private List<Enemy> loadRegionEnemies(EnemyCatalog.Snapshot catalog, String region) {
+        List<Enemy> regionEnemies = catalog.getEnemies(region);
+        log.debug("Loaded {} existing enemies for region: {} (catalog version {})",
+            regionEnemies.size(), region, catalog.getVersion());
+        return regionEnemies;
+    }
+
+    private String currentRuleVersion() {
+        return resultCache.isEnabled() || decisionTable.isEnabled() ? forwardKieBaseCache.getVersion() : null;
+    }
+
+    /**
+     * Looks the context up in the decision table. A table built for an older catalog
+     * or older rules is rebuilt in the background and the request is evaluated live.
+     */
+    private Enemy precomputedResult(GameContext context, EnemyCatalog.Snapshot catalog, String ruleVersion) {
+        if (!decisionTable.isEnabled()) {
+            return null;
+        }
+        if (!decisionTable.isCurrent(catalog.getVersion(), ruleVersion)) {
+            decisionTable.rebuild(catalog, ruleVersion, this::evaluateGroup);
+        }
+        Enemy precomputed = decisionTable.lookup(context, catalog.getVersion(), ruleVersion);
+        return precomputed != null ? createEnemyCopy(precomputed) : null;
     }
 
-    private Enemy createEnemyCopy(Enemy original) {
+    /** Cached results are shared, so every caller gets its own copy. */
+    private Enemy cachedResult(GameContext context, EnemyCatalog.Snapshot catalog, String ruleVersion) {
+        Enemy cached = resultCache.get(context, catalog.getVersion(), ruleVersion);
+        return cached != null ? createEnemyCopy(cached) : null;
+    }
+
+    /**
+     * Caches an enemy the lease's session selected. It is stored only if the session
+     * ran the rules the lookup was made for, so that an evaluation that overlapped a
+     * rule swap neither caches an old result under the new version nor brings the
+     * old version back.
+     */
+    private void cacheResult(GameContext context, EnemyCatalog.Snapshot catalog, String ruleVersion,
+                             KieSessionPool.Lease lease, Enemy enemy) {
+        if (resultCache.isEnabled() && enemy != null && Objects.equals(ruleVersion, lease.getRuleVersion())) {
+            resultCache.put(context, catalog.getVersion(), ruleVersion, createEnemyCopy(enemy));
+        }
+    }
+
+    static Enemy createEnemyCopy(Enemy original) {
         Enemy copy = new Enemy(original.getName(), original.getType());
         copy.setRegion(original.getRegion());
         copy.setHp(original.getHp());
@@ -170,7 +453,7 @@ public class EnemyGenerationService {
         return copy;
     }
 
-    private Enemy getSelectedEnemyFromSession(KieSession kieSession) {
+    private SelectionResult getSelectionResult(KieSession kieSession) {
         try {
             Collection<?> results = kieSession.getObjects(new org.kie.api.runtime.ObjectFilter() {
                 @Override
@@ -180,8 +463,7 @@ public class EnemyGenerationService {
             });
             
             if (!results.isEmpty()) {
-                SelectionResult result = (SelectionResult) results.iterator().next();
-                return result.getSelectedEnemy();
+                return (SelectionResult) results.iterator().next();
             }
         } catch (Exception e) {
             log.error("Error retrieving SelectionResult", e);
@@ -189,55 +471,62 @@ public class EnemyGenerationService {
         return null;
     }
 
-    private void executeRulesInPhases(KieSession kieSession) {
-        String[] phases = {
-            "region-filter",
-            "difficulty-adjustment",
-            "player-level-adjustment",
-            "player-build-counter",
-            "weather-effects",
-            "time-of-day-effects",
-            "final-selection"
-        };
-        
-        for (String phase : phases) {
-            try {
-                log.info("=== Starting phase: {} ===", phase);
-                kieSession.getAgenda().getAgendaGroup(phase).setFocus();
-                int fired = kieSession.fireAllRules();
-                log.info("PHASE {}: {} rules fired", phase, fired);
-                
-                List<Enemy> candidates = (List<Enemy>) kieSession.getGlobal("enemyCandidates");
-                log.info("AFTER {}: {} total candidates", phase, candidates.size());
-                
-                for (Enemy candidate : candidates) {
-                    log.debug("ENEMY: {} (Score: {}) HP: {} DMG: {}", 
-                        candidate.getName(), candidate.getScore(), 
-                        candidate.getHp(), candidate.getDamage());
-                }
-            } catch (Exception e) {
-                log.error("Error in phase {}: {}", phase, e.getMessage(), e);
-            }
+    private void executeRulesInPhases(KieSession kieSession, GameContext context, List<Enemy> enemyCandidates,
+                                      RuleTrace trace) {
+        PhasePlanner.PhasePlan plan = phasePlanner.plan(kieSession.getKieBase(), FORWARD_PHASES, context);
+        for (String skipped : plan.getSkipped()) {
+            engineMetrics.phaseSkipped(skipped);
+        }
+        if (trace != null) {
+            trace.setSkippedPhases(plan.getSkipped());
+        }
+        
+        // The focus stack is LIFO, so the first phase is pushed last and all of them run in one fireAllRules
+        List<String> phases = plan.getPhases();
+        for (int i = phases.size() - 1; i >= 0; i--) {
+            kieSession.getAgenda().getAgendaGroup(phases.get(i)).setFocus();
+        }
+        
+        RuleEngineMetrics.PhaseRecorder recorder = engineMetrics.newRecorder(enemyCandidates::size);
+        kieSession.addEventListener(recorder);
+        try {
+            int fired = kieSession.fireAllRules();
+            log.debug("Phases {} fired {} rules ({} skipped), {} candidates left",
+                phases, fired, plan.getSkipped(), enemyCandidates.size());
+        } catch (Exception e) {
+            log.error("Error executing phases {}: {}", phases, e.getMessage(), e);
+        } finally {
+            kieSession.removeEventListener(recorder);
         }
     }
 
-    private Enemy handleResult(Enemy selectedEnemy, List<Enemy> enemyCandidates, GameContext context) {
-        log.info("=== FINAL SELECTION ===");
-        log.info("Total candidates: {}", enemyCandidates.size());
-        log.info("Selected enemy from rules: {}", selectedEnemy != null ? selectedEnemy.getName() : "null");
+    private int firePhase(KieSession kieSession, String phase, RuleEngineMetrics.PhaseRecorder recorder) {
+        kieSession.getAgenda().getAgendaGroup(phase).setFocus();
+        recorder.start();
+        return kieSession.fireAllRules();
+    }
+
+    private Enemy handleResult(SelectionResult result, List<Enemy> enemyCandidates, GameContext context) {
+        Enemy selectedEnemy = result != null ? result.getSelectedEnemy() : null;
+        log.debug("=== FINAL SELECTION ===");
+        log.debug("Selected enemy from rules: {}", selectedEnemy != null ? selectedEnemy.getName() : "null");
         
         if (selectedEnemy != null) {
-            log.info("Selected enemy via rules: {} (Score: {})", selectedEnemy.getName(), selectedEnemy.getScore());
-            return selectedEnemy;
-        } else if (!enemyCandidates.isEmpty()) {
+            log.debug("Selected enemy via rules: {} (Score: {})", selectedEnemy.getName(), selectedEnemy.getScore());
+            return materialize(selectedEnemy);
+        }
+        
+        // Only reached when final selection did not run, e.g. after a failed phase
+        log.debug("Total candidates: {}", enemyCandidates.size());
+        if (!enemyCandidates.isEmpty()) {
             Enemy bestCandidate = enemyCandidates.stream()
                 .max((e1, e2) -> Double.compare(e1.getScore(), e2.getScore()))
                 .orElse(null);
                 
             if (bestCandidate != null) {
-                log.info("Selected best candidate by score: {} (Score: {})", 
+                log.debug("Selected best candidate by score: {} (Score: {})", 
                     bestCandidate.getName(), bestCandidate.getScore());
-                return bestCandidate;
+                return materialize(bestCandidate);
             }
         }
         
@@ -245,6 +534,10 @@ public class EnemyGenerationService {
         return createFallbackEnemy(context);
     }
 
+    private Enemy materialize(Enemy enemy) {
+        return enemy instanceof EnemyCandidate ? ((EnemyCandidate) enemy).toEnemy() : enemy;
+    }
+
     private Enemy createFallbackEnemy(GameContext context) {
         Enemy fallback = new Enemy("Fallback " + context.getRegion() + " Creature", "creature");
         fallback.setRegion(context.getRegion());
@@ -268,29 +561,44 @@ public class EnemyGenerationService {
     }
 
     public Enemy findSpecificEnemy(BackwardQuery query) {
-    log.info("╔════════════════════════════════════════════════════════════════╗");
-    log.info("║          STARTING BACKWARD CHAINING TREE TRAVERSAL            ║");
-    log.info("╚═══════════════════════════ggV═════════════════════════════════════╝");
-    log.info("Target Enemy: {}", query.getTargetEnemy());
+        return findSpecificEnemy(query, null);
+    }
+
+    public Enemy findSpecificEnemy(BackwardQuery query, RuleTrace trace) {
+        return findSpecificEnemy(query, null, trace).getValue();
+    }
+
+    /** Same as findSpecificEnemy, together with the version of the rules that chose the enemy. */
+    public RuleResult<Enemy> findSpecificEnemyResult(BackwardQuery query, RuleTrace trace) {
+        return findSpecificEnemy(query, null, trace);
+    }
+
+    /** Runs backward chaining over the given enemies, or over the catalog candidates if they are null. */
+    RuleResult<Enemy> findSpecificEnemy(BackwardQuery query, List<Enemy> candidates, RuleTrace trace) {
+    log.debug("Starting backward chaining for target enemy: {}", query.getTargetEnemy());
     
-    KieSession kieSession = null;
-    try {
-        kieSession = kieContainer.newKieSession("backwardChainingSession");
+    try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.BACKWARD_SESSION)) {
+        KieSession kieSession = lease.getSession();
         List<Enemy> enemyCandidates = new ArrayList<>();
         
         kieSession.setGlobal("enemyCandidates", enemyCandidates);
         
-        loadAllEnemiesForBackwardAsCopies(kieSession, enemyCandidates);
+        loadBackwardCandidates(kieSession, candidates != null ? candidates : selectBackwardCandidates(query),
+            enemyCandidates);
         
+        // Same-named enemies of other regions would link the candidate chain into a cycle
         List<String> candidateNames = enemyCandidates.stream()
             .map(Enemy::getName)
+            .distinct()
             .collect(Collectors.toList());
         
         query.setCandidateNames(candidateNames);
         query.setCurrentIndex(0);
+        if (query.getValidationMode() == null) {
+            query.setValidationMode(backwardValidation);
+        }
         
-        log.info("Loaded {} enemy candidates", candidateNames.size());
-        log.info("Candidate list: {}", candidateNames);
+        log.debug("Candidate list: {} ({} validation)", candidateNames, query.getValidationMode());
         
         kieSession.insert(query);
         if (query.getContext() != null) {
@@ -300,43 +608,36 @@ public class EnemyGenerationService {
             }
         }
         
-        log.info("\n┌─────────────────────────────────────────────────────────┐");
-        log.info("│  BACKWARD CHAIN - RECURSIVE TREE VALIDATION            │");
-        log.info("└─────────────────────────────────────────────────────────┘");
-
-        kieSession.getAgenda().getAgendaGroup("backward-chain").setFocus();
-        int rulesFired = kieSession.fireAllRules();
-        log.info("Total rules fired: {}", rulesFired);
-        
-        // Post-selection modifications
-        if (query.isConditionsMet() && query.getSelectedEnemy() != null) {
-            log.info("\n┌─────────────────────────────────────────────────────────┐");
-            log.info("│  PHASE 2: POST-SELECTION MODIFICATIONS                 │");
-            log.info("└─────────────────────────────────────────────────────────┘");
+        RuleEngineMetrics.PhaseRecorder recorder = engineMetrics.newRecorder(enemyCandidates::size);
+        kieSession.addEventListener(recorder);
+        if (trace != null) {
+            kieSession.addEventListener(trace);
+        }
+        try {
+            int rulesFired = firePhase(kieSession, "backward-chain", recorder);
+            log.debug("Backward chain rules fired: {}", rulesFired);
             
-            kieSession.getAgenda().getAgendaGroup("post-selection").setFocus();
-            int postRules = kieSession.fireAllRules();
-            log.info("Post-selection rules fired: {}", postRules);
+            // Post-selection modifications
+            if (query.isConditionsMet() && query.getSelectedEnemy() != null) {
+                int postRules = firePhase(kieSession, "post-selection", recorder);
+                log.debug("Post-selection rules fired: {}", postRules);
+            }
+        } finally {
+            kieSession.removeEventListener(recorder);
+            if (trace != null) {
+                kieSession.removeEventListener(trace);
+                trace.finish();
+            }
         }
         
-        Enemy result = handleBackwardResult(query, enemyCandidates);
-        
-        log.info("\n╔════════════════════════════════════════════════════════════════╗");
-        log.info("║            BACKWARD CHAINING COMPLETE                          ║");
-        log.info("╠════════════════════════════════════════════════════════════════╣");
-        log.info("║ Result: {}", String.format("%-49s", result.getName()) + "║");
-        log.info("║ HP: {}, DMG: {}", result.getHp(), result.getDamage());
-        log.info("╚════════════════════════════════════════════════════════════════╝");
+        Enemy result = createEnemyCopy(handleBackwardResult(query, enemyCandidates));
+        log.debug("Backward chaining result: {} (HP: {}, DMG: {})", result.getName(), result.getHp(), result.getDamage());
         
-        return result;
+        return RuleResult.of(result, lease.getRuleVersion());
         
     } catch (Exception e) {
         log.error("Error in backward chaining", e);
-        return createFallbackEnemy(query.getContext());
-    } finally {
-        if (kieSession != null) {
-            kieSession.dispose();
-        }
+        return RuleResult.of(createFallbackEnemy(query.getContext()), null);
     }
 }
     
@@ -347,9 +648,9 @@ public class EnemyGenerationService {
         }
         
         try {
-            log.info("\n──────────────────────────────────────────────────────────");
-            log.info("TREE TRAVERSAL VALIDATION:");
-            log.info("──────────────────────────────────────────────────────────");
+            log.debug("\n──────────────────────────────────────────────────────────");
+            log.debug("TREE TRAVERSAL VALIDATION:");
+            log.debug("──────────────────────────────────────────────────────────");
             
             // Check Level 1: Region Match
             QueryResults level1Results = kieSession.getQueryResults(
@@ -359,11 +660,11 @@ public class EnemyGenerationService {
             );
             
             if (level1Results.size() > 0) {
-                log.info("LEVEL 1 (OR): Region Match - PASSED");
-                log.info("  └─ Region: {} matches enemy region", query.getContext().getRegion());
+                log.debug("LEVEL 1 (OR): Region Match - PASSED");
+                log.debug("  └─ Region: {} matches enemy region", query.getContext().getRegion());
             } else {
-                log.info("LEVEL 1 (OR): Region Match - FAILED");
-                log.info("  Region: {} does not match enemy", query.getContext().getRegion());
+                log.debug("LEVEL 1 (OR): Region Match - FAILED");
+                log.debug("  Region: {} does not match enemy", query.getContext().getRegion());
             }
             
             // Check Level 2: Difficulty and Level
@@ -377,12 +678,12 @@ public class EnemyGenerationService {
             );
             
             if (level2Results.size() > 0) {
-                log.info("LEVEL 2 (AND): Difficulty={} AND Level={} - PASSED", 
+                log.debug("LEVEL 2 (AND): Difficulty={} AND Level={} - PASSED", 
                     query.getContext().getDifficulty(),
                     query.getContext().getPlayer().getLevel());
             } else {
-                log.info("LEVEL 2 (AND): Difficulty OR Level check - FAILED");
-                log.info(" Difficulty: {}, Player Level: {}", 
+                log.debug("LEVEL 2 (AND): Difficulty OR Level check - FAILED");
+                log.debug(" Difficulty: {}, Player Level: {}", 
                     query.getContext().getDifficulty(),
                     query.getContext().getPlayer().getLevel());
             }
@@ -397,17 +698,17 @@ public class EnemyGenerationService {
             );
             
             if (level3Results.size() > 0) {
-                log.info("LEVEL 3 (AND): Build={} AND Weapon={} - PASSED",
+                log.debug("LEVEL 3 (AND): Build={} AND Weapon={} - PASSED",
                     query.getContext().getPlayer().getPlayerClass(),
                     query.getContext().getPlayer().getWeaponType());
             } else {
-                log.info("LEVEL 3 (AND): Build OR Weapon check - FAILED");
-                log.info(" Class: {}, Weapon: {}",
+                log.debug("LEVEL 3 (AND): Build OR Weapon check - FAILED");
+                log.debug(" Class: {}, Weapon: {}",
                     query.getContext().getPlayer().getPlayerClass(),
                     query.getContext().getPlayer().getWeaponType());
             }
             
-            log.info("──────────────────────────────────────────────────────────");
+            log.debug("──────────────────────────────────────────────────────────");
             
         } catch (Exception e) {
             log.warn("Could not validate tree levels: {}", e.getMessage());
@@ -429,68 +730,90 @@ public class EnemyGenerationService {
         return "regular";
     }
 
-    private void loadAllEnemiesForBackwardAsCopies(KieSession kieSession, List<Enemy> enemyCandidates) {
-        try {
-            List<Enemy> allEnemies = enemyRepository.findAll();
-            log.info("Loading {} total enemies for backward chaining", allEnemies.size());
-            
-            for (Enemy originalEnemy : allEnemies) {
-                Enemy enemyCopy = createEnemyCopy(originalEnemy);
-                kieSession.insert(enemyCopy);
-                enemyCandidates.add(enemyCopy);
+    private void loadBackwardCandidates(KieSession kieSession, List<Enemy> candidates, List<Enemy> enemyCandidates) {
+        log.debug("Loading {} enemies for backward chaining ({} scope)", candidates.size(), backwardCandidateScope);
+        
+        // Backward rules never modify enemies, so the shared catalog instances are inserted as they are
+        for (Enemy catalogEnemy : candidates) {
+            kieSession.insert(catalogEnemy);
+            enemyCandidates.add(catalogEnemy);
+        }
+        
+        log.debug("Loaded {} enemy candidates", enemyCandidates.size());
+    }
+
+    private List<Enemy> selectBackwardCandidates(BackwardQuery query) {
+        EnemyCatalog.Snapshot catalog = enemyCatalog.current();
+        if (!"scoped".equals(backwardCandidateScope) || query.getContext() == null) {
+            return catalog.getAll();
+        }
+        
+        // Only enemies from the context region can pass level1_regionMatch, the rest are
+        // kept just for the target check and the fallback rules
+        Set<Enemy> scoped = new LinkedHashSet<>(catalog.getEnemies(query.getContext().getRegion()));
+        for (String region : backwardFallbackRegions) {
+            scoped.addAll(catalog.getEnemies(region));
+        }
+        
+        List<Enemy> candidates = new ArrayList<>(scoped);
+        if (candidates.size() > backwardMaxCandidates) {
+            log.warn("Backward candidates limited from {} to {}", candidates.size(), backwardMaxCandidates);
+            candidates = new ArrayList<>(candidates.subList(0, backwardMaxCandidates));
+        }
+        
+        for (Enemy target : catalog.getEnemiesNamed(query.getTargetEnemy())) {
+            if (!candidates.contains(target)) {
+                candidates.add(target);
             }
-            
-            log.info("Loaded {} enemy candidates", enemyCandidates.size());
-        } catch (Exception e) {
-            log.warn("Could not load enemies for backward chaining", e);
         }
+        return candidates;
     }
 
     private Enemy handleBackwardResult(BackwardQuery query, List<Enemy> enemyCandidates) {
-        log.info("\n=== BACKWARD RESULT HANDLER ===");
-        log.info("Query Status:");
-        log.info("  - Processed: {}", query.isProcessed());
-        log.info("  - Conditions Met: {}", query.isConditionsMet());
-        log.info("  - Selected Enemy: {}", query.getSelectedEnemy());
-        log.info("  - Fallback Enemy: {}", query.getFallbackEnemy());
+        log.debug("\n=== BACKWARD RESULT HANDLER ===");
+        log.debug("Query Status:");
+        log.debug("  - Processed: {}", query.isProcessed());
+        log.debug("  - Conditions Met: {}", query.isConditionsMet());
+        log.debug("  - Selected Enemy: {}", query.getSelectedEnemy());
+        log.debug("  - Fallback Enemy: {}", query.getFallbackEnemy());
         
         if (query.isConditionsMet() && query.getSelectedEnemy() != null) {
-            log.info("PRIORITY 1: Exact match (all tree levels passed)");
+            log.debug("PRIORITY 1: Exact match (all tree levels passed)");
             Enemy selected = findEnemyByNameInCandidates(query.getSelectedEnemy(), enemyCandidates);
             if (selected != null) {
-                log.info(" Returning: {}", selected.getName());
+                log.debug(" Returning: {}", selected.getName());
                 return selected;
             }
         }
         
         if (query.isConditionsMet() && query.getFallbackEnemy() != null) {
-            log.info("→ PRIORITY 2: Counter match");
+            log.debug("→ PRIORITY 2: Counter match");
             Enemy fallback = findEnemyByNameInCandidates(query.getFallbackEnemy(), enemyCandidates);
             if (fallback != null) {
-                log.info("Returning: {}", fallback.getName());
+                log.debug("Returning: {}", fallback.getName());
                 return fallback;
             }
         }
         
         if (query.getFallbackEnemy() != null) {
-            log.info("PRIORITY 3: Regional fallback (OR alternative)");
+            log.debug("PRIORITY 3: Regional fallback (OR alternative)");
             Enemy fallback = findEnemyByNameInCandidates(query.getFallbackEnemy(), enemyCandidates);
             if (fallback != null) {
-                log.info("Returning: {}", fallback.getName());
+                log.debug("Returning: {}", fallback.getName());
                 return fallback;
             }
         }
         
         // Priority 4: Best candidate by score
         if (!enemyCandidates.isEmpty()) {
-            log.info(" PRIORITY 4: Best candidate by score");
+            log.debug(" PRIORITY 4: Best candidate by score");
             
             List<Enemy> filtered = enemyCandidates;
             if (query.getContext() != null && query.getContext().getRegion() != null) {
                 filtered = enemyCandidates.stream()
                     .filter(e -> e.getRegion().equals(query.getContext().getRegion()))
                     .collect(Collectors.toList());
-                log.info("  - Filtered to {} enemies in region {}", 
+                log.debug("  - Filtered to {} enemies in region {}", 
                     filtered.size(), query.getContext().getRegion());
             }
             
@@ -500,12 +823,12 @@ public class EnemyGenerationService {
                     .orElse(null);
                 
                 if (best != null) {
-                    log.info("Returning: {} (Score: {})", best.getName(), best.getScore());
+                    log.debug("Returning: {} (Score: {})", best.getName(), best.getScore());
                     return best;
                 }
             }
             
-            log.info("  - Using first from original candidates");
+            log.debug("  - Using first from original candidates");
             return enemyCandidates.get(0);
         }
         
@@ -527,9 +850,8 @@ public class EnemyGenerationService {
     // ==================== UTILITY METHODS FOR TESTING ====================
     
     public void testRecursiveQueries(String enemyName, GameContext context) {
-        KieSession kieSession = null;
-        try {
-            kieSession = kieContainer.newKieSession("backwardChainingSession");
+        try (KieSessionPool.Lease lease = sessionPool.borrow(KieSessionPool.BACKWARD_SESSION)) {
+            KieSession kieSession = lease.getSession();
             
             kieSession.insert(context);
             if (context.getPlayer() != null) {
@@ -558,10 +880,19 @@ public class EnemyGenerationService {
             
         } catch (Exception e) {
             log.error("Error testing recursive queries", e);
-        } finally {
-            if (kieSession != null) {
-                kieSession.dispose();
-            }
+        }
+    }
+
+    /** Progress of an encounter between two of its enemies. */
+    public static final class Encounter {
+        private final GameContext context;
+        private EnemyCatalog.Snapshot catalog;
+        private String ruleVersion;
+        private List<Enemy> regionEnemies;
+        private List<Enemy> remaining;
+
+        private Encounter(GameContext context) {
+            this.context = context;
         }
     }
 }
\ No newline at end of file
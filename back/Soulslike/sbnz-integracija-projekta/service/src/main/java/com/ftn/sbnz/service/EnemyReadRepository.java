@@ -0,0 +1,16 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+
+import java.util.List;
+
+/**
+ * Read path for the enemy catalog. The enemies are plain objects with all their
+ * tags loaded, not managed entities, and are ordered by id.
+ */
+public interface EnemyReadRepository {
+
+    List<Enemy> findAllReadOnly();
+
+    List<Enemy> findByRegionReadOnly(String region);
+}
@@ -0,0 +1,93 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.Tag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads enemies with scalar JPQL projections: one query for the enemies and one
+ * per tag collection, however many enemies there are. Nothing is loaded as an
+ * entity, so the persistence context neither tracks nor dirty-checks the result.
+ */
+class EnemyReadRepositoryImpl implements EnemyReadRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(EnemyReadRepositoryImpl.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Enemy> findAllReadOnly() {
+        return read(null);
+    }
+
+    @Override
+    public List<Enemy> findByRegionReadOnly(String region) {
+        return read(region);
+    }
+
+    private List<Enemy> read(String region) {
+        Map<Long, Enemy> enemies = new LinkedHashMap<>();
+        for (Object[] row : query("SELECT e.id, e.name, e.type, e.region, e.hp, e.damage, e.defense,"
+            + " e.behaviour, e.score FROM Enemy e", region, " ORDER BY e.id")) {
+            Enemy enemy = new Enemy();
+            enemy.setId((Long) row[0]);
+            enemy.setName((String) row[1]);
+            enemy.setType((String) row[2]);
+            enemy.setRegion((String) row[3]);
+            enemy.setHp((Double) row[4]);
+            enemy.setDamage((Double) row[5]);
+            enemy.setDefense((Double) row[6]);
+            enemy.setBehaviour((String) row[7]);
+            enemy.setScore((Double) row[8]);
+            enemies.put(enemy.getId(), enemy);
+        }
+        if (enemies.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        readTags("abilities", region, enemies, Enemy::getAbilities);
+        readTags("resistances", region, enemies, Enemy::getResistances);
+        readTags("statusEffects", region, enemies, Enemy::getStatusEffects);
+        readTags("weaknesses", region, enemies, Enemy::getWeaknesses);
+        return new ArrayList<>(enemies.values());
+    }
+
+    private void readTags(String collection, String region, Map<Long, Enemy> enemies,
+                          Function<Enemy, Collection<Tag>> tags) {
+        // str() selects the stored label, so one unknown label skips that tag instead of failing the read
+        for (Object[] row : query("SELECT e.id, str(t) FROM Enemy e JOIN e." + collection + " t", region, "")) {
+            Enemy enemy = enemies.get((Long) row[0]);
+            if (enemy == null || row[1] == null) {
+                continue;
+            }
+            Tag tag = Tag.find((String) row[1]);
+            if (tag != null) {
+                tags.apply(enemy).add(tag);
+            } else {
+                log.warn("Skipping unknown {} tag '{}' of enemy {}", collection, row[1], row[0]);
+            }
+        }
+    }
+
+    private List<Object[]> query(String select, String region, String orderBy) {
+        String where = region != null ? " WHERE e.region = :region" : "";
+        TypedQuery<Object[]> query = entityManager.createQuery(select + where + orderBy, Object[].class);
+        if (region != null) {
+            query.setParameter("region", region);
+        }
+        return query.getResultList();
+    }
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface EnemyRepository extends JpaRepository<Enemy, Long> {
+public interface EnemyRepository extends JpaRepository<Enemy, Long>, EnemyReadRepository {
     
     List<Enemy> findByRegion(String region);
 
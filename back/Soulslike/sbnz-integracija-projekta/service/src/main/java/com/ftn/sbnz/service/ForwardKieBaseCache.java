@@ -0,0 +1,325 @@
+package com.ftn.sbnz.service;
+
+import org.drools.decisiontable.ExternalSpreadsheetCompiler;
+import org.kie.api.KieBase;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.Results;
+import org.kie.api.io.ResourceType;
+import org.kie.internal.utils.KieHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the forward KieBase (difficulty template + rules/enemy DRL). By default it
+ * is the one of the current RuleRelease, created from the executable model the
+ * kjar build generates for forwardChainingKbase, so nothing is parsed or compiled
+ * at startup; with enemy.kbase.source=drl the sources are compiled at runtime and
+ * rebuilt only when the content hash of one of them changes.
+ */
+@Component
+public class ForwardKieBaseCache {
+
+    private static Logger log = LoggerFactory.getLogger(ForwardKieBaseCache.class);
+
+    private static final String SOURCE_KJAR = "kjar";
+
+    private static final String TEMPLATE = "/templates/difficulty-adjustment.drt";
+    private static final String TEMPLATE_DATA = "/templates/template-data.xls";
+    private static final String[] RULE_FILES = {
+        "/rules/enemy/region.drl",
+        "/rules/enemy/player-level.drl",
+        "/rules/enemy/build.drl",
+        "/rules/enemy/weather.drl",
+        "/rules/enemy/daytime.drl",
+        "/rules/enemy/final.drl"
+    };
+
+    private final RuleRelease ruleRelease;
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    private volatile CachedKieBase cached;
+    private volatile long lastSourceCheck;
+
+    @Value("${enemy.kbase.check-interval-ms:5000}")
+    private long checkIntervalMs;
+
+    @Value("${enemy.kbase.source:kjar}")
+    private String kieBaseSource;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong totalRebuildNanos = new AtomicLong();
+    private final AtomicLong lastRebuildNanos = new AtomicLong();
+
+    @Autowired
+    public ForwardKieBaseCache(RuleRelease ruleRelease) {
+        this.ruleRelease = ruleRelease;
+    }
+
+    public KieBase getKieBase() {
+        return getCurrent().getKieBase();
+    }
+
+    /**
+     * Version of the forward KieBase in use: the version of the kjar release for the
+     * executable model, or the content hash of the DRL sources.
+     */
+    public String getVersion() {
+        return getCurrent().getVersion();
+    }
+
+    /**
+     * Version of the forward KieBase in use, without checking the sources or
+     * counting a cache hit. Null before the first KieBase is built.
+     */
+    String peekVersion() {
+        if (SOURCE_KJAR.equals(kieBaseSource)) {
+            return ruleRelease.current().getVersion();
+        }
+        CachedKieBase current = cached;
+        return current != null ? current.hash : null;
+    }
+
+    /** The forward KieBase in use together with its version. */
+    CachedKieBase getCurrent() {
+        if (SOURCE_KJAR.equals(kieBaseSource)) {
+            return getKjarKieBase();
+        }
+
+        CachedKieBase current = cached;
+        if (current != null && !sourceCheckDue()) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        // While one thread re-checks the sources the others keep using the current base
+        if (current != null && !buildLock.tryLock()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        if (current == null) {
+            buildLock.lock();
+        }
+
+        try {
+            current = cached;
+            if (current != null && !sourceCheckDue()) {
+                hits.incrementAndGet();
+                return current;
+            }
+
+            RuleSources sources = readSources();
+            lastSourceCheck = System.currentTimeMillis();
+
+            if (current != null && current.hash.equals(sources.hash)) {
+                hits.incrementAndGet();
+                return current;
+            }
+
+            misses.incrementAndGet();
+            try {
+                cached = build(sources);
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                log.error("Rebuilding forward KieBase failed, keeping version {}", current.hash, e);
+            }
+            return cached;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private CachedKieBase getKjarKieBase() {
+        RuleRelease.Release release = ruleRelease.current();
+        CachedKieBase current = cached;
+        if (current != null && current.hash.equals(release.getVersion())) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        // First use, or a reload swapped in a new kjar release
+        buildLock.lock();
+        try {
+            release = ruleRelease.current();
+            current = cached;
+            if (current != null && current.hash.equals(release.getVersion())) {
+                hits.incrementAndGet();
+                return current;
+            }
+
+            misses.incrementAndGet();
+            long start = System.nanoTime();
+            KieBase kieBase = release.getForwardKieBase();
+            recordRebuild(System.nanoTime() - start);
+            cached = new CachedKieBase(release.getVersion(), SOURCE_KJAR, kieBase);
+            log.info("Loaded forward KieBase {} of {} in {} ms",
+                RuleRelease.FORWARD_KBASE, release.getVersion(), TimeUnit.NANOSECONDS.toMillis(lastRebuildNanos.get()));
+            return cached;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CachedKieBase current = cached;
+        long rebuildCount = rebuilds.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hash", current != null ? current.hash : null);
+        stats.put("source", current != null ? current.source : null);
+        stats.put("builtAt", current != null ? current.builtAt : null);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("rebuilds", rebuildCount);
+        stats.put("lastRebuildMs", TimeUnit.NANOSECONDS.toMillis(lastRebuildNanos.get()));
+        stats.put("avgRebuildMs", rebuildCount > 0
+            ? TimeUnit.NANOSECONDS.toMillis(totalRebuildNanos.get() / rebuildCount) : 0);
+        return stats;
+    }
+
+    private boolean sourceCheckDue() {
+        return System.currentTimeMillis() - lastSourceCheck >= checkIntervalMs;
+    }
+
+    private void recordRebuild(long elapsed) {
+        rebuilds.incrementAndGet();
+        totalRebuildNanos.addAndGet(elapsed);
+        lastRebuildNanos.set(elapsed);
+    }
+
+    private CachedKieBase build(RuleSources sources) {
+        long start = System.nanoTime();
+        KieBase kieBase;
+        String source;
+
+        if (sources.template == null || sources.templateData == null) {
+            log.warn("Template or data file not found, using forwardChainingKbase from kjar");
+            kieBase = ruleRelease.current().getContainer().getKieBase(RuleRelease.FORWARD_KBASE);
+            source = SOURCE_KJAR;
+        } else {
+            kieBase = compile(sources);
+            source = "drl";
+        }
+
+        long elapsed = System.nanoTime() - start;
+        recordRebuild(elapsed);
+        log.info("Built forward KieBase {} from {} in {} ms",
+            sources.hash, source, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        return new CachedKieBase(sources.hash, source, kieBase);
+    }
+
+    private KieBase compile(RuleSources sources) {
+        ExternalSpreadsheetCompiler converter = new ExternalSpreadsheetCompiler();
+        String generatedDRL = converter.compile(
+            new ByteArrayInputStream(sources.templateData),
+            new ByteArrayInputStream(sources.template), 3, 2);
+        log.debug("=== GENERATED DRL FROM TEMPLATE ===\n{}\n=== END ===", generatedDRL);
+
+        KieHelper kieHelper = new KieHelper();
+        kieHelper.addContent(generatedDRL, ResourceType.DRL);
+        for (Map.Entry<String, byte[]> rule : sources.rules.entrySet()) {
+            kieHelper.addContent(new String(rule.getValue(), StandardCharsets.UTF_8), ResourceType.DRL);
+        }
+
+        Results results = kieHelper.verify();
+        if (results.hasMessages(Message.Level.WARNING, Message.Level.ERROR)) {
+            List<Message> messages = results.getMessages(Message.Level.WARNING, Message.Level.ERROR);
+            for (Message message : messages) {
+                log.error("DRL Compilation Error: {}", message.getText());
+            }
+            throw new IllegalStateException("DRL compilation errors found. Check logs.");
+        }
+
+        return kieHelper.build();
+    }
+
+    private RuleSources readSources() {
+        RuleSources sources = new RuleSources();
+        MessageDigest digest = newDigest();
+
+        sources.template = readResource(TEMPLATE, digest);
+        sources.templateData = readResource(TEMPLATE_DATA, digest);
+        for (String ruleFile : RULE_FILES) {
+            byte[] content = readResource(ruleFile, digest);
+            if (content != null) {
+                sources.rules.put(ruleFile, content);
+            } else {
+                log.warn("Rule file not found: {}", ruleFile);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        sources.hash = hash.substring(0, 16);
+        return sources;
+    }
+
+    private byte[] readResource(String path, MessageDigest digest) {
+        digest.update(path.getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = getClass().getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            byte[] content = in.readAllBytes();
+            digest.update(content);
+            return content;
+        } catch (IOException e) {
+            log.error("Error reading rule source {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class RuleSources {
+        private String hash;
+        private byte[] template;
+        private byte[] templateData;
+        private final Map<String, byte[]> rules = new LinkedHashMap<>();
+    }
+
+    static final class CachedKieBase {
+        private final String hash;
+        private final String source;
+        private final KieBase kieBase;
+        private final long builtAt = System.currentTimeMillis();
+
+        private CachedKieBase(String hash, String source, KieBase kieBase) {
+            this.hash = hash;
+            this.source = source;
+            this.kieBase = kieBase;
+        }
+
+        KieBase getKieBase() { return kieBase; }
+
+        String getVersion() { return hash; }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for forward generation. Requests whose context has the same
+ * ContextSignature as one that is still being evaluated wait for that evaluation
+ * instead of starting their own. The first request gets the generated enemy and
+ * every follower gets its own copy of it, with the version of the rules that
+ * selected it.
+ * <p>
+ * Only requests that overlap in time are coalesced; once the evaluation completes
+ * the next request with that signature starts a new one.
+ */
+@Component
+public class GenerationCoalescer {
+
+    @Value("${enemy.generation.coalescing.enabled:true}")
+    private boolean enabled;
+
+    private final Map<GenerationResultCache.ContextSignature, CompletableFuture<RuleResult<Enemy>>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+
+    @Autowired
+    public GenerationCoalescer(MeterRegistry registry) {
+        leaders = Counter.builder("enemy.generation.coalescing")
+            .description("Forward generation requests by whether they ran the rules or joined a running evaluation")
+            .tag("role", "leader")
+            .register(registry);
+        followers = Counter.builder("enemy.generation.coalescing")
+            .tag("role", "follower")
+            .register(registry);
+        Gauge.builder("enemy.generation.coalescing.ratio", this, GenerationCoalescer::ratio)
+            .description("Share of forward generation requests answered by another request's evaluation")
+            .register(registry);
+        Gauge.builder("enemy.generation.coalescing.in-flight", inFlight, Map::size)
+            .register(registry);
+    }
+
+    /**
+     * Joins the running evaluation for the context's signature, or starts one with
+     * the given supplier. Exceptions thrown by the supplier, e.g. a rejected
+     * submit, reach only the request that tried to start the evaluation.
+     */
+    public CompletableFuture<RuleResult<Enemy>> join(GameContext context,
+                                                     Supplier<CompletableFuture<RuleResult<Enemy>>> evaluation) {
+        if (!enabled) {
+            return evaluation.get();
+        }
+        GenerationResultCache.ContextSignature signature = GenerationResultCache.ContextSignature.of(context);
+        CompletableFuture<RuleResult<Enemy>> started = new CompletableFuture<>();
+        CompletableFuture<RuleResult<Enemy>> running = inFlight.putIfAbsent(signature, started);
+        if (running != null) {
+            followers.increment();
+            return running.thenApply(result -> result.getValue() != null
+                ? RuleResult.of(EnemyGenerationService.createEnemyCopy(result.getValue()), result.getRuleVersion())
+                : result);
+        }
+
+        try {
+            CompletableFuture<RuleResult<Enemy>> evaluated = evaluation.get();
+            leaders.increment();
+            evaluated.whenComplete((result, error) -> {
+                inFlight.remove(signature, started);
+                if (error != null) {
+                    started.completeExceptionally(error);
+                } else {
+                    started.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(signature, started);
+            started.completeExceptionally(e);
+            throw e;
+        }
+        return started;
+    }
+
+    private double ratio() {
+        double total = leaders.count() + followers.count();
+        return total > 0 ? followers.count() / total : 0.0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("inFlight", inFlight.size());
+        stats.put("leaders", (long) leaders.count());
+        stats.put("followers", (long) followers.count());
+        stats.put("ratio", ratio());
+        return stats;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ftn.sbnz.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the rule evaluation of the generation endpoints off the request threads,
+ * on a fixed number of threads with a bounded queue. When the queue is full the
+ * work is rejected right away instead of piling up, so a burst of spawns cannot
+ * take the connector threads that the rest of the API needs.
+ */
+@Component
+public class GenerationExecutor {
+
+    @Value("${enemy.generation.threads:0}")
+    private int threads;
+
+    @Value("${enemy.generation.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${enemy.generation.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final MeterRegistry registry;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    public GenerationExecutor(MeterRegistry registry) {
+        this.registry = registry;
+        queueWait = Timer.builder("enemy.generation.queue.wait")
+            .description("Time generation requests wait for a rule execution thread")
+            .register(registry);
+        rejected = Counter.builder("enemy.generation.rejected")
+            .description("Generation requests rejected because the queue was full")
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "enemy-generation-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("enemy.generation.queue.depth", executor, pool -> pool.getQueue().size())
+            .description("Generation requests waiting for a rule execution thread")
+            .register(registry);
+        Gauge.builder("enemy.generation.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Generation requests being evaluated")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the work and returns its result as a future.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(work.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        return result;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("meanQueueWaitMs", queueWait.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxQueueWaitMs", queueWait.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+}
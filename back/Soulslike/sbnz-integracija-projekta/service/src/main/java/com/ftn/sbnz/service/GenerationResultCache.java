@@ -0,0 +1,262 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Forward generation results by ContextSignature. The forward rules read only the
+ * region, difficulty, weather and time of day of the context and the level and
+ * class of the player, so the same signature selects the same enemy as long as
+ * the catalog and the rules stay the same. Entries belong to a generation of the
+ * cache for one catalog version and forward KieBase version. The first lookup
+ * with a newer version (enemy created or deleted, rules rebuilt) replaces the
+ * generation and with it all entries.
+ * <p>
+ * Lookups and stores go to a ConcurrentHashMap without a lock. Every entry
+ * remembers when it was last read; once the map grows beyond max-size, the thread
+ * that notices evicts the least recently read tenth of the entries while the
+ * others carry on, so the cache can briefly hold a few more than max-size.
+ */
+@Component
+public class GenerationResultCache {
+
+    private static Logger log = LoggerFactory.getLogger(GenerationResultCache.class);
+
+    @Value("${enemy.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${enemy.result-cache.max-size:10000}")
+    private int maxSize;
+
+    private final AtomicReference<Generation> generation = new AtomicReference<>(new Generation(-1, null));
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    @Autowired
+    public GenerationResultCache(MeterRegistry registry) {
+        hits = Counter.builder("enemy.result-cache.lookups")
+            .description("Forward generation result cache lookups")
+            .tag("result", "hit")
+            .register(registry);
+        misses = Counter.builder("enemy.result-cache.lookups")
+            .description("Forward generation result cache lookups")
+            .tag("result", "miss")
+            .register(registry);
+        evictions = Counter.builder("enemy.result-cache.evictions")
+            .description("Entries evicted because the cache was full")
+            .register(registry);
+        invalidations = Counter.builder("enemy.result-cache.invalidations")
+            .description("Times the cache was cleared for a new catalog or rule version")
+            .register(registry);
+        Gauge.builder("enemy.result-cache.size", this, GenerationResultCache::size)
+            .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Returns the cached result for the context, or null if it has to be generated. */
+    public Enemy get(GameContext context, long catalogVersion, String ruleVersion) {
+        if (!enabled) {
+            return null;
+        }
+        Generation current = current(catalogVersion, ruleVersion);
+        Entry entry = current != null ? current.entries.get(ContextSignature.of(context)) : null;
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastRead = System.nanoTime();
+        hits.increment();
+        return entry.enemy;
+    }
+
+    public void put(GameContext context, long catalogVersion, String ruleVersion, Enemy enemy) {
+        if (!enabled || enemy == null) {
+            return;
+        }
+        Generation current = current(catalogVersion, ruleVersion);
+        if (current == null) {
+            return;
+        }
+        current.entries.put(ContextSignature.of(context), new Entry(enemy));
+        if (current.entries.size() > maxSize) {
+            evict(current);
+        }
+    }
+
+    public int size() {
+        return generation.get().entries.size();
+    }
+
+    public Map<String, Object> getStats() {
+        double hitCount = hits.count();
+        double lookups = hitCount + misses.count();
+        Generation current = generation.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", current.entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("catalogVersion", current.catalogVersion);
+        stats.put("ruleVersion", current.ruleVersion);
+        stats.put("hits", (long) hitCount);
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRate", lookups > 0 ? hitCount / lookups : 0.0);
+        stats.put("evictions", (long) evictions.count());
+        stats.put("invalidations", (long) invalidations.count());
+        return stats;
+    }
+
+    /**
+     * Returns the generation for the versions, replacing the current one if the
+     * versions are newer. Returns null for a request that still works with an
+     * older catalog snapshot.
+     */
+    private Generation current(long catalogVersion, String ruleVersion) {
+        while (true) {
+            Generation current = generation.get();
+            if (catalogVersion < current.catalogVersion) {
+                return null;
+            }
+            if (catalogVersion == current.catalogVersion && Objects.equals(ruleVersion, current.ruleVersion)) {
+                return current;
+            }
+            Generation next = new Generation(catalogVersion, ruleVersion);
+            if (generation.compareAndSet(current, next)) {
+                if (!current.entries.isEmpty()) {
+                    log.debug("Dropping {} cached results for catalog version {} and rule version {}",
+                        current.entries.size(), catalogVersion, ruleVersion);
+                    invalidations.increment();
+                }
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently read entries until a tenth of max-size is free.
+     * Only one thread evicts at a time; the others skip it.
+     */
+    private void evict(Generation current) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = current.entries.size() - maxSize + Math.max(maxSize / 10, 1);
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<ContextSignature, Entry>> byLastRead = new ArrayList<>(current.entries.entrySet());
+            byLastRead.sort(Comparator.comparingLong(entry -> entry.getValue().lastRead));
+            int removed = 0;
+            for (Map.Entry<ContextSignature, Entry> entry : byLastRead.subList(0, Math.min(excess, byLastRead.size()))) {
+                if (current.entries.remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+            evictions.increment(removed);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /** The entries for one catalog version and rule version. */
+    private static class Generation {
+        private final long catalogVersion;
+        private final String ruleVersion;
+        private final Map<ContextSignature, Entry> entries = new ConcurrentHashMap<>();
+
+        private Generation(long catalogVersion, String ruleVersion) {
+            this.catalogVersion = catalogVersion;
+            this.ruleVersion = ruleVersion;
+        }
+    }
+
+    private static class Entry {
+        private final Enemy enemy;
+        private volatile long lastRead = System.nanoTime();
+
+        private Entry(Enemy enemy) {
+            this.enemy = enemy;
+        }
+    }
+
+    /** The parts of a GameContext and its Player that the forward rules constrain. */
+    static final class ContextSignature {
+        private final String region;
+        private final String difficulty;
+        private final String weather;
+        private final String timeOfDay;
+        private final Integer playerLevel;
+        private final Player.PlayerClass playerClass;
+
+        private ContextSignature(GameContext context) {
+            Player player = context.getPlayer();
+            this.region = context.getRegion();
+            this.difficulty = context.getDifficulty();
+            this.weather = context.getWeather();
+            this.timeOfDay = context.getTimeOfDay();
+            // The exact level, not only its band: "Reward Balanced Enemy" compares it with the enemy hp
+            this.playerLevel = player != null ? player.getLevel() : null;
+            this.playerClass = player != null ? player.getPlayerClass() : null;
+        }
+
+        static ContextSignature of(GameContext context) {
+            return new ContextSignature(context);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ContextSignature)) {
+                return false;
+            }
+            ContextSignature other = (ContextSignature) o;
+            return Objects.equals(region, other.region)
+                && Objects.equals(difficulty, other.difficulty)
+                && Objects.equals(weather, other.weather)
+                && Objects.equals(timeOfDay, other.timeOfDay)
+                && Objects.equals(playerLevel, other.playerLevel)
+                && playerClass == other.playerClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, difficulty, weather, timeOfDay, playerLevel, playerClass);
+        }
+
+        @Override
+        public String toString() {
+            return region + "/" + difficulty + "/" + weather + "/" + timeOfDay + "/" + playerLevel + "/" + playerClass;
+        }
+    }
+}
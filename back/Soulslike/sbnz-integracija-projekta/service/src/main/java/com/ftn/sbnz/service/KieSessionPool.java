@@ -0,0 +1,282 @@
+package com.ftn.sbnz.service;
+
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of KieSessions per ksession from kmodule.xml. Sessions are reset
+ * when returned instead of being disposed, so a request only pays for inserts and
+ * rule evaluation. A session whose KieBase was replaced while it was borrowed is
+ * disposed when it is returned, so the idle sessions are always of the current
+ * KieBase.
+ */
+@Component
+public class KieSessionPool {
+
+    public static final String FORWARD_SESSION = "forwardChainingSession";
+    public static final String BACKWARD_SESSION = "backwardChainingSession";
+
+    private static Logger log = LoggerFactory.getLogger(KieSessionPool.class);
+
+    private final RuleRelease ruleRelease;
+    private final ForwardKieBaseCache forwardKieBaseCache;
+    private final Map<String, SessionPool> pools = new ConcurrentHashMap<>();
+    private final Set<Lease> activeLeases = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService leakDetector;
+
+    @Value("${enemy.session-pool.max-size:16}")
+    private int maxSize;
+
+    @Value("${enemy.session-pool.borrow-timeout-ms:5000}")
+    private long borrowTimeoutMs;
+
+    @Value("${enemy.session-pool.leak-threshold-ms:30000}")
+    private long leakThresholdMs;
+
+    @Autowired
+    public KieSessionPool(RuleRelease ruleRelease, ForwardKieBaseCache forwardKieBaseCache) {
+        this.ruleRelease = ruleRelease;
+        this.forwardKieBaseCache = forwardKieBaseCache;
+    }
+
+    @PostConstruct
+    public void startLeakDetection() {
+        leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kie-session-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, leakThresholdMs / 2);
+        leakDetector.scheduleAtFixedRate(this::reportLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+        for (SessionPool pool : pools.values()) {
+            IdleSession idle;
+            while ((idle = pool.idle.poll()) != null) {
+                idle.session.dispose();
+            }
+        }
+    }
+
+    public Lease borrow(String sessionName) {
+        SessionPool pool = pools.computeIfAbsent(sessionName, SessionPool::new);
+
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = pool.permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + sessionName, e);
+        }
+        long waited = System.nanoTime() - waitStart;
+        pool.recordWait(waited);
+
+        if (!acquired) {
+            pool.timeouts.incrementAndGet();
+            throw new IllegalStateException("No " + sessionName + " available within " + borrowTimeoutMs + " ms");
+        }
+
+        try {
+            IdleSession current = currentKieBase(sessionName);
+            IdleSession idle;
+            while ((idle = pool.idle.poll()) != null) {
+                if (idle.kieBase == current.kieBase) {
+                    break;
+                }
+                // KieBase was rebuilt in the meantime, sessions of the old one are dropped
+                idle.session.dispose();
+                pool.disposed.incrementAndGet();
+            }
+            if (idle == null) {
+                idle = new IdleSession(current.kieBase, current.version, current.kieBase.newKieSession());
+                pool.created.incrementAndGet();
+            }
+
+            Lease lease = new Lease(pool, idle);
+            activeLeases.add(lease);
+            pool.borrowed.incrementAndGet();
+            return lease;
+        } catch (RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (SessionPool pool : pools.values()) {
+            stats.put(pool.name, pool.getStats());
+        }
+        return stats;
+    }
+
+    /** The current KieBase of the session and its version, without a session. */
+    private IdleSession currentKieBase(String sessionName) {
+        if (FORWARD_SESSION.equals(sessionName)) {
+            ForwardKieBaseCache.CachedKieBase current = forwardKieBaseCache.getCurrent();
+            return new IdleSession(current.getKieBase(), current.getVersion(), null);
+        }
+        RuleRelease.Release release = ruleRelease.current();
+        return new IdleSession(release.getSessionKieBase(sessionName), release.getVersion(), null);
+    }
+
+    /** Version of the current KieBase of the session, without building or counting anything. */
+    private String currentVersion(String sessionName) {
+        if (FORWARD_SESSION.equals(sessionName)) {
+            return forwardKieBaseCache.peekVersion();
+        }
+        return ruleRelease.current().getVersion();
+    }
+
+    private void release(Lease lease) {
+        activeLeases.remove(lease);
+        SessionPool pool = lease.pool;
+        try {
+            if (!lease.idle.version.equals(currentVersion(pool.name))) {
+                // Rules were swapped while the session was borrowed; it would only be dropped at the next borrow
+                lease.idle.session.dispose();
+                pool.disposed.incrementAndGet();
+                return;
+            }
+            ((StatefulKnowledgeSessionImpl) lease.idle.session).reset();
+            pool.idle.offer(lease.idle);
+        } catch (RuntimeException e) {
+            log.warn("Could not reset {}, disposing it: {}", pool.name, e.getMessage());
+            lease.idle.session.dispose();
+            pool.disposed.incrementAndGet();
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : activeLeases) {
+            long heldMs = TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedAt);
+            if (heldMs >= leakThresholdMs && lease.leakReported.compareAndSet(false, true)) {
+                lease.pool.leaks.incrementAndGet();
+                log.warn("Possible KieSession leak: {} borrowed by thread {} has not been returned for {} ms",
+                    lease.pool.name, lease.borrowerThread, heldMs);
+            }
+        }
+    }
+
+    public class Lease implements AutoCloseable {
+        private final SessionPool pool;
+        private final IdleSession idle;
+        private final long borrowedAt = System.nanoTime();
+        private final String borrowerThread = Thread.currentThread().getName();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean leakReported = new AtomicBoolean();
+
+        private Lease(SessionPool pool, IdleSession idle) {
+            this.pool = pool;
+            this.idle = idle;
+        }
+
+        public KieSession getSession() {
+            return idle.session;
+        }
+
+        /** Version of the rules of the session's KieBase, which is what the results of this lease come from. */
+        public String getRuleVersion() {
+            return idle.version;
+        }
+
+        public void reset() {
+            ((StatefulKnowledgeSessionImpl) idle.session).reset();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(this);
+            }
+        }
+    }
+
+    private static class IdleSession {
+        private final KieBase kieBase;
+        private final String version;
+        private final KieSession session;
+
+        private IdleSession(KieBase kieBase, String version, KieSession session) {
+            this.kieBase = kieBase;
+            this.version = version;
+            this.session = session;
+        }
+    }
+
+    private class SessionPool {
+        private final String name;
+        private final Semaphore permits;
+        private final Deque<IdleSession> idle = new ConcurrentLinkedDeque<>();
+
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong disposed = new AtomicLong();
+        private final AtomicLong borrowed = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong leaks = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private SessionPool(String name) {
+            this.name = name;
+            this.permits = new Semaphore(maxSize, true);
+        }
+
+        private void recordWait(long nanos) {
+            totalWaitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Map<String, Object> getStats() {
+            int active = maxSize - permits.availablePermits();
+            long borrowCount = borrowed.get();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxSize", maxSize);
+            stats.put("active", active);
+            stats.put("idle", idle.size());
+            stats.put("waiting", permits.getQueueLength());
+            stats.put("utilization", (double) active / maxSize);
+            stats.put("created", created.get());
+            stats.put("disposed", disposed.get());
+            stats.put("borrowed", borrowCount);
+            stats.put("timeouts", timeouts.get());
+            stats.put("leaks", leaks.get());
+            stats.put("avgWaitMs", borrowCount > 0
+                ? totalWaitNanos.get() / (double) borrowCount / 1_000_000 : 0.0);
+            stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.GameContext;
+
+import org.drools.core.base.ClassObjectType;
+import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.drools.core.rule.GroupElement;
+import org.drools.core.rule.IndexableConstraint;
+import org.drools.core.rule.Pattern;
+import org.drools.core.rule.RuleConditionElement;
+import org.drools.core.spi.Constraint;
+import org.drools.core.util.index.IndexUtil;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Decides which agenda groups can activate for a game context. For every rule the
+ * top-level GameContext pattern is inspected once per KieBase, and its equality
+ * constraints against literals (e.g. {@code weather == "rain"}) become a guard; a
+ * group whose rules all have failing guards is skipped. Other constraints never
+ * exclude a rule.
+ */
+@Component
+public class PhasePlanner {
+
+    private static Logger log = LoggerFactory.getLogger(PhasePlanner.class);
+
+    private final Map<KieBase, Map<String, List<RuleGuard>>> guardsByKieBase =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Value("${enemy.phase-planner.enabled:true}")
+    private boolean enabled;
+
+    public PhasePlan plan(KieBase kieBase, List<String> phases, GameContext context) {
+        if (!enabled) {
+            return new PhasePlan(phases, List.of());
+        }
+
+        Map<String, List<RuleGuard>> guards = guardsByKieBase.computeIfAbsent(kieBase, this::analyze);
+        List<String> live = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (String phase : phases) {
+            if (canActivate(guards.getOrDefault(phase, List.of()), context)) {
+                live.add(phase);
+            } else {
+                skipped.add(phase);
+            }
+        }
+        return new PhasePlan(live, skipped);
+    }
+
+    private boolean canActivate(List<RuleGuard> rules, GameContext context) {
+        for (RuleGuard rule : rules) {
+            if (rule.admits(context)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, List<RuleGuard>> analyze(KieBase kieBase) {
+        Map<String, List<RuleGuard>> guards = new HashMap<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Rule rule : kiePackage.getRules()) {
+                if (!(rule instanceof RuleImpl) || ((RuleImpl) rule).isQuery()) {
+                    continue;
+                }
+                RuleImpl ruleImpl = (RuleImpl) rule;
+                guards.computeIfAbsent(ruleImpl.getAgendaGroup(), group -> new ArrayList<>())
+                    .add(guardOf(ruleImpl));
+            }
+        }
+        log.debug("Analyzed agenda groups of KieBase: {}", guards);
+        return guards;
+    }
+
+    private RuleGuard guardOf(RuleImpl rule) {
+        List<IndexableConstraint> required = new ArrayList<>();
+        GroupElement lhs = rule.getLhs();
+        if (lhs == null || !lhs.isAnd()) {
+            return new RuleGuard(rule.getName(), required);
+        }
+
+        for (RuleConditionElement element : lhs.getChildren()) {
+            if (!(element instanceof Pattern)) {
+                continue;
+            }
+            Pattern pattern = (Pattern) element;
+            if (pattern.getSource() != null || !(pattern.getObjectType() instanceof ClassObjectType)
+                || !GameContext.class.getName().equals(((ClassObjectType) pattern.getObjectType()).getClassName())) {
+                continue;
+            }
+            for (Constraint constraint : pattern.getConstraints()) {
+                if (!(constraint instanceof IndexableConstraint)) {
+                    continue;
+                }
+                IndexableConstraint indexable = (IndexableConstraint) constraint;
+                if (indexable.getConstraintType() == IndexUtil.ConstraintType.EQUAL
+                    && !indexable.isUnification()
+                    && indexable.getField() != null
+                    && indexable.getFieldExtractor() != null) {
+                    required.add(indexable);
+                }
+            }
+        }
+        return new RuleGuard(rule.getName(), required);
+    }
+
+    private static class RuleGuard {
+        private final String rule;
+        private final List<IndexableConstraint> required;
+
+        private RuleGuard(String rule, List<IndexableConstraint> required) {
+            this.rule = rule;
+            this.required = required;
+        }
+
+        private boolean admits(GameContext context) {
+            for (IndexableConstraint constraint : required) {
+                try {
+                    Object actual = constraint.getFieldExtractor().getValue(null, context);
+                    if (!Objects.equals(actual, constraint.getField().getValue())) {
+                        return false;
+                    }
+                } catch (RuntimeException e) {
+                    return true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return rule + required;
+        }
+    }
+
+    public static class PhasePlan {
+        private final List<String> phases;
+        private final List<String> skipped;
+
+        private PhasePlan(List<String> phases, List<String> skipped) {
+            this.phases = phases;
+            this.skipped = skipped;
+        }
+
+        public List<String> getPhases() { return phases; }
+
+        public List<String> getSkipped() { return skipped; }
+    }
+}
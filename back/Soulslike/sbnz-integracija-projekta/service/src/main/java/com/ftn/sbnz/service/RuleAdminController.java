@@ -0,0 +1,50 @@
+package com.ftn.sbnz.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Operations that change what the engine serves: a rule reload and a catalog
+ * refresh. They share the public API with generation, so they are only mapped
+ * with enemy.admin.enabled=true, which application.properties leaves off.
+ */
+@RestController
+@RequestMapping("/api/engine")
+@ConditionalOnProperty(name = "enemy.admin.enabled", havingValue = "true")
+public class RuleAdminController {
+
+    @Autowired
+    private EnemyCatalog enemyCatalog;
+
+    @Autowired
+    private RuleRelease ruleRelease;
+
+    /**
+     * Loads the latest kjar build and swaps it in once its KieBases are built and
+     * validated. A release that fails keeps the current one active and answers 422.
+     */
+    @PostMapping("/rules/reload")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> reloadRules() {
+        return ruleRelease.reload()
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(error -> {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("error", "Rule reload failed: " + (error.getCause() != null ? error.getCause() : error).getMessage());
+                body.put("version", ruleRelease.getVersion());
+                return ResponseEntity.unprocessableEntity().body(body);
+            });
+    }
+
+    @PostMapping("/catalog/refresh")
+    public ResponseEntity<Map<String, Object>> refreshCatalog() {
+        return ResponseEntity.ok(RuleEngineController.catalogInfo(enemyCatalog.refresh()));
+    }
+}
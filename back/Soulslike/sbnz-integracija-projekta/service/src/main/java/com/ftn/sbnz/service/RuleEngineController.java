@@ -0,0 +1,96 @@
+package com.ftn.sbnz.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/engine")
+public class RuleEngineController {
+
+    @Autowired
+    private ForwardKieBaseCache forwardKieBaseCache;
+
+    @Autowired
+    private KieSessionPool sessionPool;
+
+    @Autowired
+    private EnemyCatalog enemyCatalog;
+
+    @Autowired
+    private GenerationResultCache resultCache;
+
+    @Autowired
+    private DecisionTable decisionTable;
+
+    @Autowired
+    private GenerationExecutor generationExecutor;
+
+    @Autowired
+    private GenerationCoalescer generationCoalescer;
+
+    @Autowired
+    private RuleRelease ruleRelease;
+
+    @Autowired
+    private RuleEngineWarmup warmup;
+
+    @GetMapping("/rules")
+    public ResponseEntity<Map<String, Object>> ruleReleaseStats() {
+        return ResponseEntity.ok(ruleRelease.getStats());
+    }
+
+    @GetMapping("/warmup")
+    public ResponseEntity<Map<String, Object>> warmupStats() {
+        return ResponseEntity.ok(warmup.getStats());
+    }
+
+    @GetMapping("/kbase")
+    public ResponseEntity<Map<String, Object>> kieBaseStats() {
+        return ResponseEntity.ok(forwardKieBaseCache.getStats());
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> sessionPoolStats() {
+        return ResponseEntity.ok(sessionPool.getStats());
+    }
+
+    @GetMapping("/result-cache")
+    public ResponseEntity<Map<String, Object>> resultCacheStats() {
+        return ResponseEntity.ok(resultCache.getStats());
+    }
+
+    @GetMapping("/decision-table")
+    public ResponseEntity<Map<String, Object>> decisionTableStats() {
+        return ResponseEntity.ok(decisionTable.getStats());
+    }
+
+    @GetMapping("/generation")
+    public ResponseEntity<Map<String, Object>> generationExecutorStats() {
+        return ResponseEntity.ok(generationExecutor.getStats());
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> coalescingStats() {
+        return ResponseEntity.ok(generationCoalescer.getStats());
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<Map<String, Object>> catalogStats() {
+        return ResponseEntity.ok(catalogInfo(enemyCatalog.current()));
+    }
+
+    static Map<String, Object> catalogInfo(EnemyCatalog.Snapshot catalog) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("version", catalog.getVersion());
+        info.put("publishedAt", catalog.getPublishedAt());
+        info.put("enemies", catalog.size());
+        info.put("regions", catalog.getRegions());
+        return info;
+    }
+}
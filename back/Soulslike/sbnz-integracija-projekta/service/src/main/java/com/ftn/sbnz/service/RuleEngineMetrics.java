@@ -0,0 +1,140 @@
+package com.ftn.sbnz.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaGroupPoppedEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Micrometer meters for the agenda groups fired by the forward and backward
+ * chaining, tagged by phase (agenda group name).
+ */
+@Component
+public class RuleEngineMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, PhaseMeters> phases = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RuleEngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public PhaseRecorder newRecorder(IntSupplier candidates) {
+        return new PhaseRecorder(candidates);
+    }
+
+    public void phaseSkipped(String phase) {
+        phases.computeIfAbsent(phase, PhaseMeters::new).skipped.increment();
+    }
+
+    /**
+     * Attached to a session for one evaluation. A phase ends when its agenda group
+     * is popped from the focus stack, so several phases can run in a single
+     * fireAllRules call.
+     */
+    public class PhaseRecorder extends DefaultAgendaEventListener {
+        private final IntSupplier candidates;
+        private long phaseStart;
+        private int fired;
+        private int created;
+        private int cancelled;
+        private int candidatesBefore;
+
+        private PhaseRecorder(IntSupplier candidates) {
+            this.candidates = candidates;
+            start();
+        }
+
+        public void start() {
+            phaseStart = System.nanoTime();
+            fired = 0;
+            created = 0;
+            cancelled = 0;
+            candidatesBefore = candidates.getAsInt();
+        }
+
+        @Override
+        public void matchCreated(MatchCreatedEvent event) {
+            created++;
+        }
+
+        @Override
+        public void matchCancelled(MatchCancelledEvent event) {
+            cancelled++;
+        }
+
+        @Override
+        public void afterMatchFired(AfterMatchFiredEvent event) {
+            fired++;
+        }
+
+        @Override
+        public void agendaGroupPopped(AgendaGroupPoppedEvent event) {
+            PhaseMeters meters = phases.computeIfAbsent(event.getAgendaGroup().getName(), PhaseMeters::new);
+            meters.duration.record(System.nanoTime() - phaseStart, TimeUnit.NANOSECONDS);
+            meters.fired.increment(fired);
+            meters.activationsCreated.increment(created);
+            meters.activationsCancelled.increment(cancelled);
+            meters.candidatesBefore.record(candidatesBefore);
+            meters.candidatesAfter.record(candidates.getAsInt());
+            start();
+        }
+    }
+
+    private class PhaseMeters {
+        private final Timer duration;
+        private final Counter fired;
+        private final Counter activationsCreated;
+        private final Counter activationsCancelled;
+        private final DistributionSummary candidatesBefore;
+        private final DistributionSummary candidatesAfter;
+        private final Counter skipped;
+
+        private PhaseMeters(String phase) {
+            duration = Timer.builder("enemy.rules.phase")
+                .description("Wall time of one agenda group")
+                .tag("phase", phase)
+                .register(registry);
+            fired = Counter.builder("enemy.rules.phase.fired")
+                .description("Rules fired in the agenda group")
+                .tag("phase", phase)
+                .register(registry);
+            activationsCreated = Counter.builder("enemy.rules.phase.activations")
+                .tag("phase", phase)
+                .tag("event", "created")
+                .register(registry);
+            activationsCancelled = Counter.builder("enemy.rules.phase.activations")
+                .tag("phase", phase)
+                .tag("event", "cancelled")
+                .register(registry);
+            candidatesBefore = DistributionSummary.builder("enemy.rules.phase.candidates")
+                .description("Enemy candidates before and after the agenda group")
+                .tag("phase", phase)
+                .tag("stage", "before")
+                .register(registry);
+            candidatesAfter = DistributionSummary.builder("enemy.rules.phase.candidates")
+                .description("Enemy candidates before and after the agenda group")
+                .tag("phase", phase)
+                .tag("stage", "after")
+                .register(registry);
+            skipped = Counter.builder("enemy.rules.phase.skipped")
+                .description("Evaluations in which the phase planner skipped the agenda group")
+                .tag("phase", phase)
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.BackwardQuery;
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+import com.ftn.sbnz.model.models.Tag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the rule engine before the application takes traffic. It builds the
+ * forward and backward KieBases and replays synthetic forward contexts and
+ * backward queries against a synthetic catalog that reach every agenda group,
+ * so that Rete segments, pooled sessions and the JIT are initialised by the
+ * warm-up instead of by the first players.
+ * <p>
+ * It runs as an ApplicationRunner: Spring Boot reports the readiness state as
+ * ACCEPTING_TRAFFIC only after the runners are done, so the readiness probe
+ * stays down for as long as the warm-up runs while the liveness probe is up.
+ */
+@Component
+public class RuleEngineWarmup implements ApplicationRunner {
+
+    private static Logger log = LoggerFactory.getLogger(RuleEngineWarmup.class);
+
+    private static final String[] REGIONS = { "swamp", "castle", "mountain", "desert", "forest", "volcano" };
+    private static final String[] DIFFICULTIES = { "easy", "medium", "medium-hard", "hard" };
+    private static final String[] WEATHERS = { "clear", "rain", "fog", "snow", "sandstorm" };
+    private static final String[] TIMES_OF_DAY = { "day", "night" };
+    private static final int[] LEVELS = { 5, 25, 45, 75 };
+    private static final String[] TYPES = {
+        "regular", "elite", "boss", "witch", "goblin", "undead", "demon", "knight", "mage", "archer",
+        "golem", "bird", "creature"
+    };
+    private static final Tag[] ABILITIES = { Tag.MELEE, Tag.RANGED, Tag.MAGIC, Tag.POISON, Tag.WATER, Tag.FLYING };
+
+    @Value("${enemy.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${enemy.warmup.rounds:3}")
+    private int rounds;
+
+    private final EnemyGenerationService generationService;
+    private final ForwardKieBaseCache forwardKieBaseCache;
+    private final RuleRelease ruleRelease;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile String state = "pending";
+    private volatile long durationMs;
+    private volatile long kieBaseMs;
+    private volatile long replayMs;
+    private volatile int forwardEvaluations;
+    private volatile int backwardEvaluations;
+    private volatile Set<String> firedAgendaGroups = Set.of();
+    private volatile Set<String> missingAgendaGroups = Set.of();
+    private volatile String error;
+
+    @Autowired
+    public RuleEngineWarmup(EnemyGenerationService generationService, ForwardKieBaseCache forwardKieBaseCache,
+                            RuleRelease ruleRelease, ApplicationEventPublisher eventPublisher,
+                            MeterRegistry registry) {
+        this.generationService = generationService;
+        this.forwardKieBaseCache = forwardKieBaseCache;
+        this.ruleRelease = ruleRelease;
+        this.eventPublisher = eventPublisher;
+        TimeGauge.builder("enemy.warmup.duration", this, TimeUnit.MILLISECONDS, warmup -> warmup.durationMs)
+            .description("Time the rule engine warm-up took at startup")
+            .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            state = "disabled";
+            log.info("Rule engine warm-up is disabled");
+            return;
+        }
+
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        state = "running";
+        long start = System.nanoTime();
+        try {
+            List<KieBase> kieBases = List.of(
+                forwardKieBaseCache.getKieBase(),
+                ruleRelease.current().getSessionKieBase(KieSessionPool.BACKWARD_SESSION));
+            kieBaseMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            long replayStart = System.nanoTime();
+            Set<String> fired = new TreeSet<>();
+            for (int round = 0; round < Math.max(rounds, 1); round++) {
+                replay(round == 0 ? fired : null);
+            }
+            replayMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayStart);
+
+            Set<String> missing = agendaGroups(kieBases);
+            missing.removeAll(fired);
+            firedAgendaGroups = fired;
+            missingAgendaGroups = missing;
+            state = "done";
+            if (!missing.isEmpty()) {
+                log.warn("Rule engine warm-up did not fire agenda groups {}", missing);
+            }
+        } catch (RuntimeException e) {
+            state = "failed";
+            error = e.getMessage();
+            log.error("Rule engine warm-up failed, the first requests will warm up the engine", e);
+        } finally {
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        log.info("Rule engine warm-up {} in {} ms (KieBases {} ms, {} forward and {} backward evaluations in {} ms)",
+            state, durationMs, kieBaseMs, forwardEvaluations, backwardEvaluations, replayMs);
+    }
+
+    /**
+     * Runs every region with every weather and time of day, cycling through the
+     * difficulties, player classes and levels, and then a backward query for every
+     * synthetic enemy in both validation modes. Agenda groups that fired are added
+     * to the given set when it is not null.
+     */
+    private void replay(Set<String> fired) {
+        Player.PlayerClass[] classes = Player.PlayerClass.values();
+        int index = 0;
+        for (String region : REGIONS) {
+            List<Enemy> enemies = syntheticEnemies(region);
+            for (String weather : WEATHERS) {
+                for (String timeOfDay : TIMES_OF_DAY) {
+                    Player player = new Player("warm-up", LEVELS[(index / DIFFICULTIES.length) % LEVELS.length],
+                        classes[index % classes.length], null);
+                    GameContext context = new GameContext(region, DIFFICULTIES[index % DIFFICULTIES.length],
+                        weather, timeOfDay, player);
+                    RuleTrace trace = traceFor(fired);
+                    generationService.evaluate(context, enemies, trace);
+                    record(trace, fired);
+                    forwardEvaluations++;
+                    index++;
+                }
+            }
+
+            for (String mode : EnemyGenerationService.VALIDATION_MODES) {
+                for (int i = 0; i < enemies.size(); i++) {
+                    Player player = new Player("warm-up", LEVELS[i % LEVELS.length], classes[i % classes.length], null);
+                    BackwardQuery query = new BackwardQuery(enemies.get(i).getName(), new GameContext(region,
+                        DIFFICULTIES[i % DIFFICULTIES.length], WEATHERS[i % WEATHERS.length],
+                        TIMES_OF_DAY[i % TIMES_OF_DAY.length], player));
+                    query.setValidationMode(mode);
+                    RuleTrace trace = traceFor(fired);
+                    generationService.findSpecificEnemy(query, enemies, trace);
+                    record(trace, fired);
+                    backwardEvaluations++;
+                }
+            }
+        }
+    }
+
+    private static RuleTrace traceFor(Set<String> fired) {
+        return fired != null ? new RuleTrace(false, Integer.MAX_VALUE) : null;
+    }
+
+    private static void record(RuleTrace trace, Set<String> fired) {
+        if (trace != null) {
+            for (RuleTrace.Firing firing : trace.getFired()) {
+                fired.add(firing.getAgendaGroup());
+            }
+        }
+    }
+
+    /** One enemy of every type the rules look for, with alternating abilities and stats. */
+    private static List<Enemy> syntheticEnemies(String region) {
+        List<Enemy> enemies = new ArrayList<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            boolean boss = "boss".equals(TYPES[i]);
+            Enemy enemy = new Enemy("Warm-up " + region + " " + TYPES[i], TYPES[i]);
+            enemy.setId(-(long) i - 1);
+            enemy.setRegion(region);
+            enemy.setBehaviour(i % 2 == 0 ? "aggressive" : "defensive");
+            enemy.setHp(boss ? 9000 : 1000 + 500 * i);
+            enemy.setDamage(boss ? 800 : 100 + 20 * i);
+            enemy.setDefense(i % 2 == 0 ? 100 : 300);
+            enemy.setScore(50 + 10 * i);
+            enemy.getAbilities().add(ABILITIES[i % ABILITIES.length]);
+            if (i % 3 == 0) {
+                enemy.getResistances().add(Tag.MAGIC);
+            }
+            enemy.getWeaknesses().add(Tag.FIRE);
+            enemies.add(enemy);
+        }
+        return enemies;
+    }
+
+    private static Set<String> agendaGroups(List<KieBase> kieBases) {
+        Set<String> groups = new TreeSet<>();
+        for (KieBase kieBase : kieBases) {
+            for (KiePackage kiePackage : kieBase.getKiePackages()) {
+                for (Rule rule : kiePackage.getRules()) {
+                    if (rule instanceof RuleImpl && !((RuleImpl) rule).isQuery()) {
+                        groups.add(((RuleImpl) rule).getAgendaGroup());
+                    }
+                }
+            }
+        }
+        return groups;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("state", state);
+        stats.put("rounds", rounds);
+        stats.put("durationMs", durationMs);
+        stats.put("kieBaseMs", kieBaseMs);
+        stats.put("replayMs", replayMs);
+        stats.put("forwardEvaluations", forwardEvaluations);
+        stats.put("backwardEvaluations", backwardEvaluations);
+        stats.put("agendaGroups", firedAgendaGroups);
+        stats.put("missingAgendaGroups", missingAgendaGroups);
+        stats.put("error", error);
+        return stats;
+    }
+}
@@ -0,0 +1,346 @@
+package com.ftn.sbnz.service;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.compiler.kie.builder.impl.KieContainerImpl;
+import org.drools.compiler.kie.builder.impl.KieModuleKieProject;
+import org.drools.compiler.kie.builder.impl.KieProject;
+import org.drools.model.Model;
+import org.drools.modelcompiler.builder.KieBaseBuilder;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.KieRepository;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.runtime.KieContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The kjar release the rules are served from: a KieContainer together with its
+ * forward and backward KieBases and a version computed from the content of the
+ * kjar, so that a rebuilt SNAPSHOT gets a new version although its release id
+ * stays the same.
+ * <p>
+ * There is no polling. reload() resolves the kjar again from the Maven repository,
+ * builds and validates the new KieBases on a background thread and then publishes
+ * the new release in one step. Sessions borrowed before the swap finish on the old
+ * KieBases; the session pool disposes them when they are returned. The container
+ * of the old release is disposed only after enemy.kbase.retire-grace-ms, so that
+ * those sessions can finish first.
+ */
+@Component
+public class RuleRelease {
+
+    private static Logger log = LoggerFactory.getLogger(RuleRelease.class);
+
+    static final String FORWARD_KBASE = "forwardChainingKbase";
+    static final String BACKWARD_KBASE = "backwardChainingKbase";
+    private static final String MODEL_INDEX = "META-INF/" + FORWARD_KBASE + "/drools-model";
+
+    private final KieContainer initialContainer;
+    private final AtomicReference<Release> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Map<String, Object>>> reloading = new AtomicReference<>();
+
+    private ScheduledExecutorService reloadExecutor;
+
+    @Value("${enemy.kbase.retire-grace-ms:60000}")
+    private long retireGraceMs;
+
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong swaps = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastReloadMs;
+    private volatile String lastError;
+
+    @Autowired
+    public RuleRelease(KieContainer kieContainer) {
+        this.initialContainer = kieContainer;
+    }
+
+    @PostConstruct
+    public void start() {
+        reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-release-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    public Release current() {
+        Release release = current.get();
+        if (release == null) {
+            synchronized (this) {
+                release = current.get();
+                if (release == null) {
+                    release = new Release(initialContainer);
+                    current.set(release);
+                    log.info("Serving rules of {} version {}", release.releaseId, release.version);
+                }
+            }
+        }
+        return release;
+    }
+
+    public String getVersion() {
+        return current().version;
+    }
+
+    /**
+     * Loads the latest build of the kjar and swaps it in if its content changed.
+     * Concurrent calls share the reload that is already running. The future fails
+     * with IllegalStateException if the new rules do not build or validate, in which
+     * case the current release stays active.
+     */
+    public CompletableFuture<Map<String, Object>> reload() {
+        while (true) {
+            CompletableFuture<Map<String, Object>> running = reloading.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Map<String, Object>> started = new CompletableFuture<>();
+            if (reloading.compareAndSet(null, started)) {
+                reloadExecutor.execute(() -> {
+                    try {
+                        Map<String, Object> result = doReload();
+                        reloading.set(null);
+                        started.complete(result);
+                    } catch (Throwable e) {
+                        reloading.set(null);
+                        started.completeExceptionally(e);
+                    }
+                });
+                return started;
+            }
+        }
+    }
+
+    private Map<String, Object> doReload() {
+        reloads.incrementAndGet();
+        long start = System.nanoTime();
+        Release active = current();
+        KieServices kieServices = KieServices.Factory.get();
+        KieRepository repository = kieServices.getRepository();
+
+        // The KieRepository keeps a module per release id, so a SNAPSHOT is dropped from
+        // it first to make the new container resolve the jar from the Maven repository
+        KieModule previous = repository.removeKieModule(active.releaseId);
+        KieContainer container = null;
+        try {
+            container = kieServices.newKieContainer(active.releaseId);
+            Release candidate = new Release(container);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("previousVersion", active.version);
+            result.put("version", candidate.version);
+            if (candidate.version.equals(active.version)) {
+                container.dispose();
+                restore(repository, active.releaseId, previous);
+                result.put("changed", false);
+            } else {
+                candidate.validate();
+                if (!current.compareAndSet(active, candidate)) {
+                    throw new IllegalStateException("Release changed during reload");
+                }
+                swaps.incrementAndGet();
+                retire(active);
+                result.put("changed", true);
+                log.info("Swapped rules of {} from version {} to {}", candidate.releaseId, active.version,
+                    candidate.version);
+            }
+            lastError = null;
+            lastReloadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            result.put("reloadMs", lastReloadMs);
+            return result;
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            if (container != null) {
+                container.dispose();
+            }
+            restore(repository, active.releaseId, previous);
+            log.error("Reloading rules of {} failed, keeping version {}", active.releaseId, active.version, e);
+            throw e instanceof IllegalStateException ? e : new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /** Puts the module of the active release back, in place of the one the reload resolved. */
+    private static void restore(KieRepository repository, ReleaseId releaseId, KieModule previous) {
+        if (previous != null) {
+            repository.removeKieModule(releaseId);
+            repository.addKieModule(previous);
+        }
+    }
+
+    /**
+     * Disposes the container of a release that was swapped out once the grace
+     * period is over. Sessions still borrowed then are reported as leaks by the
+     * session pool long before.
+     */
+    private void retire(Release release) {
+        reloadExecutor.schedule(() -> {
+            release.container.dispose();
+            log.info("Disposed rules of {} version {}", release.releaseId, release.version);
+        }, retireGraceMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> getStats() {
+        Release release = current();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("releaseId", release.releaseId != null ? release.releaseId.toString() : null);
+        stats.put("version", release.version);
+        stats.put("loadedAt", release.loadedAt);
+        stats.put("reloading", reloading.get() != null);
+        stats.put("reloads", reloads.get());
+        stats.put("swaps", swaps.get());
+        stats.put("failures", failures.get());
+        stats.put("lastReloadMs", lastReloadMs);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    /** One kjar build with the KieBases created from it. */
+    public static class Release {
+        private final KieContainer container;
+        private final ReleaseId releaseId;
+        private final String version;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private volatile KieBase forwardKieBase;
+
+        private Release(KieContainer container) {
+            this.container = container;
+            this.releaseId = container.getReleaseId();
+            this.version = contentVersion(container);
+        }
+
+        public String getVersion() { return version; }
+
+        public KieContainer getContainer() { return container; }
+
+        /**
+         * The forward KieBase created from the executable model the kjar build
+         * generated, or compiled from its DRL if the kjar does not contain one.
+         */
+        public KieBase getForwardKieBase() {
+            KieBase kieBase = forwardKieBase;
+            if (kieBase == null) {
+                synchronized (this) {
+                    kieBase = forwardKieBase;
+                    if (kieBase == null) {
+                        kieBase = loadExecutableModel();
+                        if (kieBase == null) {
+                            log.warn("No executable model for {} in kjar, compiling its DRL", FORWARD_KBASE);
+                            kieBase = container.getKieBase(FORWARD_KBASE);
+                        }
+                        forwardKieBase = kieBase;
+                    }
+                }
+            }
+            return kieBase;
+        }
+
+        public KieBase getSessionKieBase(String sessionName) {
+            return container.getKieBase(container.getKieSessionModel(sessionName).getKieBaseModel().getName());
+        }
+
+        /** Builds both KieBases and opens a session on each, so that a broken build is never swapped in. */
+        private void validate() {
+            for (KieBase kieBase : List.of(getForwardKieBase(), container.getKieBase(BACKWARD_KBASE))) {
+                int rules = 0;
+                for (KiePackage kiePackage : kieBase.getKiePackages()) {
+                    rules += kiePackage.getRules().size();
+                }
+                if (rules == 0) {
+                    throw new IllegalStateException("Release " + version + " has a KieBase without rules");
+                }
+                kieBase.newKieSession().dispose();
+            }
+        }
+
+        private KieBase loadExecutableModel() {
+            ClassLoader classLoader = container.getClassLoader();
+            List<Model> models = new ArrayList<>();
+            try (InputStream in = classLoader.getResourceAsStream(MODEL_INDEX)) {
+                if (in == null) {
+                    return null;
+                }
+                for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("Drools-Model-Version:")) {
+                        continue;
+                    }
+                    models.add((Model) classLoader.loadClass(line).getDeclaredConstructor().newInstance());
+                }
+            } catch (IOException | ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot load executable model of " + FORWARD_KBASE, e);
+            }
+            return KieBaseBuilder.createKieBaseFromModel(models, container.getKieBaseModel(FORWARD_KBASE));
+        }
+
+        /**
+         * The release version followed by a hash of every file in the kjar. The
+         * classpath container has no kjar to hash and uses its release id.
+         */
+        private static String contentVersion(KieContainer container) {
+            ReleaseId releaseId = container.getReleaseId();
+            KieProject project = container instanceof KieContainerImpl
+                ? ((KieContainerImpl) container).getKieProject() : null;
+            if (!(project instanceof KieModuleKieProject)) {
+                return releaseId != null ? releaseId.toString() : FORWARD_KBASE;
+            }
+
+            InternalKieModule module = ((KieModuleKieProject) project).getInternalKieModule();
+            MessageDigest digest = newDigest();
+            for (String fileName : new TreeSet<>(module.getFileNames())) {
+                byte[] content = module.getBytes(fileName);
+                digest.update(fileName.getBytes(StandardCharsets.UTF_8));
+                if (content != null) {
+                    digest.update(content);
+                }
+            }
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return releaseId.getVersion() + "+" + hash.substring(0, 12);
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
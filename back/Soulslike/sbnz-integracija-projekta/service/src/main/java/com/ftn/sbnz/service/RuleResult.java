@@ -0,0 +1,26 @@
+package com.ftn.sbnz.service;
+
+/**
+ * A generation result together with the version of the rules that produced it:
+ * the version of the KieBase of the session that evaluated it, or the version the
+ * decision table or result cache entry was stored for. The version is null for
+ * fallback enemies that no rules produced.
+ */
+public final class RuleResult<T> {
+
+    private final T value;
+    private final String ruleVersion;
+
+    private RuleResult(T value, String ruleVersion) {
+        this.value = value;
+        this.ruleVersion = ruleVersion;
+    }
+
+    public static <T> RuleResult<T> of(T value, String ruleVersion) {
+        return new RuleResult<>(value, ruleVersion);
+    }
+
+    public T getValue() { return value; }
+
+    public String getRuleVersion() { return ruleVersion; }
+}
@@ -0,0 +1,128 @@
+package com.ftn.sbnz.service;
+
+import com.ftn.sbnz.model.models.Enemy;
+
+import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaGroupPushedEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.runtime.rule.Match;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request record of rule firings. It is only attached to a session when a
+ * request is traced, so untraced requests do not create any agenda events.
+ */
+public class RuleTrace extends DefaultAgendaEventListener {
+
+    private final boolean requested;
+    private final int maxEvents;
+    private final long startNanos = System.nanoTime();
+    private final List<Firing> fired = new ArrayList<>();
+    private final List<String> agendaGroups = new ArrayList<>();
+    private List<String> skippedPhases = new ArrayList<>();
+
+    private int activationsCreated;
+    private int activationsCancelled;
+    private int droppedEvents;
+    private long durationNanos;
+
+    public RuleTrace(boolean requested, int maxEvents) {
+        this.requested = requested;
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    public void matchCreated(MatchCreatedEvent event) {
+        activationsCreated++;
+    }
+
+    @Override
+    public void matchCancelled(MatchCancelledEvent event) {
+        activationsCancelled++;
+    }
+
+    @Override
+    public void agendaGroupPushed(AgendaGroupPushedEvent event) {
+        agendaGroups.add(event.getAgendaGroup().getName());
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        if (fired.size() >= maxEvents) {
+            droppedEvents++;
+            return;
+        }
+        fired.add(new Firing(event.getMatch()));
+    }
+
+    public void finish() {
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    public boolean isRequested() { return requested; }
+
+    public List<Firing> getFired() { return fired; }
+
+    public List<String> getAgendaGroups() { return agendaGroups; }
+
+    public List<String> getSkippedPhases() { return skippedPhases; }
+
+    public void setSkippedPhases(List<String> skippedPhases) { this.skippedPhases = skippedPhases; }
+
+    public int getActivationsCreated() { return activationsCreated; }
+
+    public int getActivationsCancelled() { return activationsCancelled; }
+
+    public int getDroppedEvents() { return droppedEvents; }
+
+    public double getDurationMs() {
+        return durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        List<String> rules = new ArrayList<>();
+        for (Firing firing : fired) {
+            rules.add(firing.rule);
+        }
+        return fired.size() + droppedEvents + " rules fired in " + String.format("%.2f", getDurationMs())
+            + " ms " + rules;
+    }
+
+    public static class Firing {
+        private final String rule;
+        private final String agendaGroup;
+        private final Map<String, String> facts = new LinkedHashMap<>();
+
+        private Firing(Match match) {
+            this.rule = match.getRule().getName();
+            this.agendaGroup = match.getRule() instanceof RuleImpl
+                ? ((RuleImpl) match.getRule()).getAgendaGroup() : null;
+            for (String declaration : match.getDeclarationIds()) {
+                facts.put(declaration, describe(match.getDeclarationValue(declaration)));
+            }
+        }
+
+        private static String describe(Object value) {
+            if (value instanceof Enemy) {
+                Enemy enemy = (Enemy) value;
+                return enemy.getName() + " (score " + enemy.getScore() + ")";
+            }
+            return String.valueOf(value);
+        }
+
+        public String getRule() { return rule; }
+
+        public String getAgendaGroup() { return agendaGroup; }
+
+        public Map<String, String> getFacts() { return facts; }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ftn.sbnz.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests are traced: explicitly requested ones (?trace=true)
+ * and a configurable sample of the rest, which is only logged.
+ */
+@Component
+public class RuleTracing {
+
+    private static Logger log = LoggerFactory.getLogger(RuleTracing.class);
+
+    @Value("${enemy.trace.sample-rate:0.0}")
+    private double sampleRate;
+
+    @Value("${enemy.trace.max-events:500}")
+    private int maxEvents;
+
+    public RuleTrace begin(boolean requested) {
+        if (requested) {
+            return new RuleTrace(true, maxEvents);
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return new RuleTrace(false, maxEvents);
+        }
+        return null;
+    }
+
+    public void complete(String operation, RuleTrace trace) {
+        if (trace != null && !trace.isRequested()) {
+            log.info("Sampled {} trace: {}", operation, trace);
+        }
+    }
+}
@@ -17,9 +17,14 @@ CREATE TABLE enemies (
     experience_reward INTEGER DEFAULT 0,
     critical_chance DOUBLE PRECISION DEFAULT 0.1,
     dodge_chance DOUBLE PRECISION DEFAULT 0.1,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_enemies_region_name UNIQUE (region, name)
 );
 
+CREATE INDEX idx_enemies_region_score ON enemies (region, score);
+CREATE INDEX idx_enemies_type_region ON enemies (type, region);
+CREATE INDEX idx_enemies_name ON enemies (name);
+
 INSERT INTO enemies (
     name, type, region, hp, damage, defense, behaviour,
     abilities, status_effects, resistances, weaknesses, score
@@ -0,0 +1,110 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+
+import com.ftn.sbnz.model.models.BackwardQuery;
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+import com.ftn.sbnz.model.models.Tag;
+
+/**
+ * Runs the backward rules with the recursive and the flat candidate validation.
+ * When the target fails, both must select the first candidate, in candidate
+ * order, that passes all three levels of the tree.
+ */
+public class BackwardValidationTest {
+
+    private static final String[] DIFFICULTIES = { "easy", "medium", "medium-hard", "hard" };
+    private static final int[] LEVELS = { 10, 30, 60 };
+
+    @Test
+    void flatValidationSelectsSameEnemyAsRecursive() {
+        KieBase kieBase = KieServices.Factory.get().getKieClasspathContainer().getKieBase("backwardChainingKbase");
+        List<Enemy> catalog = catalog();
+
+        for (String region : new String[] { "swamp", "castle" }) {
+            for (String difficulty : DIFFICULTIES) {
+                for (Player.PlayerClass playerClass : Player.PlayerClass.values()) {
+                    for (int level : LEVELS) {
+                        for (Enemy target : catalog) {
+                            GameContext context = new GameContext(region, difficulty, "clear", "day",
+                                new Player("tester", level, playerClass, "sword"));
+                            String recursive = select(kieBase, catalog, target.getName(), context, "recursive");
+                            String flat = select(kieBase, catalog, target.getName(), context, "flat");
+                            assertEquals(recursive, flat, target.getName() + " in " + region + ", " + difficulty
+                                + ", " + playerClass + " " + level);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void failedTargetSelectsFirstValidCandidate() {
+        KieBase kieBase = KieServices.Factory.get().getKieClasspathContainer().getKieBase("backwardChainingKbase");
+        GameContext context = new GameContext("swamp", "medium-hard", "clear", "day",
+            new Player("tester", 10, Player.PlayerClass.MAGE, "staff"));
+
+        // Swamp Witch and Bog Brute are too strong for level 10, Swamp King is a boss
+        assertEquals("Swamp Goblin", select(kieBase, catalog(), "Swamp Witch", context, "recursive"));
+        assertEquals("Swamp Goblin", select(kieBase, catalog(), "Swamp Witch", context, "flat"));
+    }
+
+    private static String select(KieBase kieBase, List<Enemy> catalog, String target, GameContext context,
+                                 String validationMode) {
+        KieSession kieSession = kieBase.newKieSession();
+        try {
+            List<Enemy> enemyCandidates = new ArrayList<>(catalog);
+            kieSession.setGlobal("enemyCandidates", enemyCandidates);
+            catalog.forEach(kieSession::insert);
+
+            BackwardQuery query = new BackwardQuery(target, context);
+            query.setCandidateNames(catalog.stream().map(Enemy::getName).collect(Collectors.toList()));
+            query.setValidationMode(validationMode);
+            kieSession.insert(query);
+            kieSession.insert(context);
+            kieSession.insert(context.getPlayer());
+
+            kieSession.getAgenda().getAgendaGroup("backward-chain").setFocus();
+            kieSession.fireAllRules();
+            return query.isConditionsMet() ? query.getSelectedEnemy() : null;
+        } finally {
+            kieSession.dispose();
+        }
+    }
+
+    private static List<Enemy> catalog() {
+        List<Enemy> catalog = new ArrayList<>();
+        catalog.add(enemy("Castle Archer", "regular", "castle", 1800, 150, List.of(Tag.RANGED), List.of()));
+        catalog.add(enemy("Swamp Witch", "elite", "swamp", 2800, 150, List.of(Tag.MAGIC, Tag.POISON), List.of()));
+        catalog.add(enemy("Bog Brute", "regular", "swamp", 4000, 250, List.of(Tag.MELEE), List.of()));
+        catalog.add(enemy("Swamp King", "boss", "swamp", 1500, 300, List.of(Tag.MELEE), List.of(Tag.MAGIC)));
+        catalog.add(enemy("Swamp Goblin", "goblin", "swamp", 1500, 100, List.of(Tag.STEALTH, Tag.MELEE), List.of()));
+        catalog.add(enemy("Iron Knight", "elite", "castle", 3500, 400, List.of(Tag.MELEE), List.of(Tag.MAGIC)));
+        catalog.add(enemy("Marsh Archer", "regular", "swamp", 1200, 80, List.of(Tag.RANGED), List.of()));
+        catalog.add(enemy("Castle Lord", "boss", "castle", 9000, 500, List.of(Tag.MAGIC), List.of()));
+        return catalog;
+    }
+
+    private static Enemy enemy(String name, String type, String region, double hp, double defense,
+                               List<Tag> abilities, List<Tag> resistances) {
+        Enemy enemy = new Enemy(name, type);
+        enemy.setRegion(region);
+        enemy.setHp(hp);
+        enemy.setDefense(defense);
+        enemy.getAbilities().addAll(abilities);
+        enemy.getResistances().addAll(resistances);
+        return enemy;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.service.EnemyCatalog;
+import com.ftn.sbnz.service.EnemyGenerationController;
+import com.ftn.sbnz.service.EnemyGenerationService;
+import com.ftn.sbnz.service.EnemyRepository;
+import com.ftn.sbnz.service.GenerationCoalescer;
+import com.ftn.sbnz.service.GenerationExecutor;
+import com.ftn.sbnz.service.RuleResult;
+import com.ftn.sbnz.service.RuleTracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Generates batches through the controller with the rules replaced by a mock. The
+ * batch is answered asynchronously, and a batch the generation queue cannot take
+ * gets 503 with Retry-After like the other generation endpoints.
+ */
+@WebMvcTest
+public class BatchGenerationTest {
+
+    private static final String BATCH = "/api/enemy/generate/forward/batch";
+    private static final String CONTEXTS = "[{\"region\":\"swamp\",\"difficulty\":\"medium\","
+        + "\"weather\":\"clear\",\"timeOfDay\":\"day\"}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EnemyGenerationService enemyService;
+
+    @MockBean
+    private EnemyRepository enemyRepository;
+
+    @MockBean
+    private EnemyCatalog enemyCatalog;
+
+    @MockBean
+    private RuleTracing ruleTracing;
+
+    @MockBean
+    private GenerationCoalescer generationCoalescer;
+
+    @Configuration
+    @Import({ EnemyGenerationController.class, GenerationExecutor.class })
+    static class ControllerConfiguration {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void batchIsAnsweredAsynchronously() throws Exception {
+        Enemy enemy = new Enemy("Bog Witch", "witch");
+        enemy.setRegion("swamp");
+        when(enemyService.generateEnemiesResult(anyList()))
+            .thenReturn(CompletableFuture.completedFuture(RuleResult.of(List.of(enemy), "v1")));
+
+        MvcResult started = mockMvc.perform(post(BATCH).contentType(MediaType.APPLICATION_JSON).content(CONTEXTS))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Rule-Version", "v1"))
+            .andExpect(jsonPath("$[0].name").value("Bog Witch"));
+    }
+
+    @Test
+    void batchIsRejectedWhenTheQueueIsFull() throws Exception {
+        when(enemyService.generateEnemiesResult(anyList())).thenThrow(new RejectedExecutionException());
+
+        MvcResult started = mockMvc.perform(post(BATCH).contentType(MediaType.APPLICATION_JSON).content(CONTEXTS))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+}
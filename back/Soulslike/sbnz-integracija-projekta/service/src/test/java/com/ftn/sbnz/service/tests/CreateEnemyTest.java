@@ -0,0 +1,93 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.Tag;
+import com.ftn.sbnz.service.EnemyCatalog;
+import com.ftn.sbnz.service.EnemyGenerationController;
+import com.ftn.sbnz.service.EnemyGenerationService;
+import com.ftn.sbnz.service.EnemyRepository;
+import com.ftn.sbnz.service.GenerationCoalescer;
+import com.ftn.sbnz.service.GenerationExecutor;
+import com.ftn.sbnz.service.RuleTracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Creates enemies through the controller with the repository replaced by a mock.
+ * Tags arrive as labels; labels outside the Tag vocabulary, which the create form
+ * lets users type, are skipped instead of failing the request.
+ */
+@WebMvcTest
+public class CreateEnemyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EnemyGenerationService enemyService;
+
+    @MockBean
+    private EnemyRepository enemyRepository;
+
+    @MockBean
+    private EnemyCatalog enemyCatalog;
+
+    @MockBean
+    private RuleTracing ruleTracing;
+
+    @MockBean
+    private GenerationCoalescer generationCoalescer;
+
+    @Configuration
+    @Import({ EnemyGenerationController.class, GenerationExecutor.class })
+    static class ControllerConfiguration {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void unknownTagLabelsAreSkipped() throws Exception {
+        when(enemyRepository.save(any(Enemy.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(enemyCatalog.enemyCreated(any(Enemy.class))).thenReturn(mock(EnemyCatalog.Snapshot.class));
+
+        mockMvc.perform(post("/api/enemy/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Bog Witch\",\"type\":\"witch\",\"region\":\"swamp\","
+                    + "\"abilities\":[\"magic\",\"acid-rain\"],\"resistances\":[\"sludge\"],"
+                    + "\"statusEffects\":[\"poison\"]}"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.enemy.abilities[0]").value("magic"))
+            .andExpect(jsonPath("$.enemy.resistances").isEmpty());
+
+        ArgumentCaptor<Enemy> saved = ArgumentCaptor.forClass(Enemy.class);
+        verify(enemyRepository).save(saved.capture());
+        assertEquals(EnumSet.of(Tag.MAGIC), saved.getValue().getAbilities());
+        assertEquals(EnumSet.noneOf(Tag.class), saved.getValue().getResistances());
+        assertEquals(EnumSet.of(Tag.POISON), saved.getValue().getStatusEffects());
+    }
+}
@@ -0,0 +1,155 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.service.EnemyCatalog;
+import com.ftn.sbnz.service.EnemyGenerationController;
+import com.ftn.sbnz.service.EnemyGenerationService;
+import com.ftn.sbnz.service.EnemyRepository;
+import com.ftn.sbnz.service.GenerationCoalescer;
+import com.ftn.sbnz.service.GenerationExecutor;
+import com.ftn.sbnz.service.RuleResult;
+import com.ftn.sbnz.service.RuleTracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Streams encounters through the controller with the rules replaced by a mock. The
+ * Accept header selects NDJSON or Server-Sent Events, NDJSON being the default, and
+ * X-Rule-Version is the version of the rules that selected the streamed enemies.
+ */
+@WebMvcTest
+public class EncounterStreamTest {
+
+    private static final String STREAM = "/api/enemy/generate/forward/stream";
+    private static final String CONTEXT = "{\"region\":\"swamp\",\"difficulty\":\"medium\","
+        + "\"weather\":\"clear\",\"timeOfDay\":\"day\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EnemyGenerationService enemyService;
+
+    @MockBean
+    private EnemyRepository enemyRepository;
+
+    @MockBean
+    private EnemyCatalog enemyCatalog;
+
+    @MockBean
+    private RuleTracing ruleTracing;
+
+    @MockBean
+    private GenerationCoalescer generationCoalescer;
+
+    @Configuration
+    @Import({ EnemyGenerationController.class, GenerationExecutor.class })
+    static class ControllerConfiguration {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(enemyService.nextEncounterEnemy(any())).thenReturn(
+            RuleResult.of(enemy("Bog Witch"), "v1"),
+            RuleResult.of(enemy("Swamp Goblin"), "v1"),
+            RuleResult.of(enemy("Mire Golem"), "v1"));
+    }
+
+    @Test
+    void ndjsonIsStreamedByDefault() throws Exception {
+        for (String accept : new String[] { null, "*/*", MediaType.APPLICATION_NDJSON_VALUE }) {
+            MockHttpServletResponse response = stream(accept, 3);
+
+            assertEquals(200, response.getStatus(), String.valueOf(accept));
+            assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType(), String.valueOf(accept));
+            assertEquals("v1", response.getHeader("X-Rule-Version"));
+            List<String> lines = Arrays.asList(response.getContentAsString().split("\n"));
+            assertEquals(3, lines.size(), response.getContentAsString());
+            assertTrue(lines.get(0).startsWith("{") && lines.get(0).contains("\"name\":\"Bog Witch\""), lines.get(0));
+            assertTrue(lines.get(2).contains("\"name\":\"Mire Golem\""), lines.get(2));
+            setUp();
+        }
+    }
+
+    @Test
+    void eventStreamIsStreamedForItsAcceptHeader() throws Exception {
+        MockHttpServletResponse response = stream("application/x-ndjson;q=0.5, text/event-stream", 3);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE), response.getContentType());
+        assertEquals("v1", response.getHeader("X-Rule-Version"));
+        String content = response.getContentAsString();
+        List<String> events = Arrays.stream(content.split("\n"))
+            .filter(line -> line.startsWith("event:"))
+            .collect(Collectors.toList());
+        assertEquals(List.of("event:enemy", "event:enemy", "event:enemy", "event:complete"), events, content);
+        assertTrue(content.contains("id:2"), content);
+        assertTrue(content.contains("\"count\":3"), content);
+    }
+
+    @Test
+    void streamEndsWhenTheRulesChange() throws Exception {
+        when(enemyService.nextEncounterEnemy(any())).thenReturn(
+            RuleResult.of(enemy("Bog Witch"), "v1"),
+            RuleResult.of(enemy("Swamp Goblin"), "v2"));
+
+        MockHttpServletResponse response = stream(null, 3);
+
+        assertEquals("v1", response.getHeader("X-Rule-Version"));
+        assertEquals(1, response.getContentAsString().split("\n").length, response.getContentAsString());
+    }
+
+    /** Runs the request and waits for the stream to complete. */
+    private MockHttpServletResponse stream(String accept, int count) throws Exception {
+        MockHttpServletRequestBuilder builder = post(STREAM).param("count", String.valueOf(count))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(CONTEXT);
+        if (accept != null) {
+            builder.header(HttpHeaders.ACCEPT, accept);
+        }
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        started.getAsyncResult(5000);
+
+        MvcResult streaming = mockMvc.perform(asyncDispatch(started)).andReturn();
+        streaming.getAsyncResult(5000);
+        return streaming.getResponse();
+    }
+
+    private static Enemy enemy(String name) {
+        Enemy enemy = new Enemy(name, "regular");
+        enemy.setRegion("swamp");
+        return enemy;
+    }
+}
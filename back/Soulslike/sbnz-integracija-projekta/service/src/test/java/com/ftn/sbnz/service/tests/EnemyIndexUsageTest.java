@@ -0,0 +1,158 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.service.ConstraintViolations;
+import com.ftn.sbnz.service.EnemyRepository;
+
+/**
+ * Runs every EnemyRepository query against 100k seeded enemies in H2 and checks
+ * with EXPLAIN that the SQL Hibernate generates for it is answered from the
+ * expected index instead of a table scan.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ftn.sbnz.service.tests.EnemyIndexUsageTest$CapturingInspector"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EnemyIndexUsageTest {
+
+    private static final int ROWS = 100_000;
+    private static final int REGIONS = 50;
+    private static final String[] TYPES = { "regular", "elite", "undead", "beast" };
+
+    private static boolean seeded;
+
+    @Autowired
+    private EnemyRepository enemyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Enemy.class)
+    @EnableJpaRepositories(basePackageClasses = EnemyRepository.class)
+    static class RepositoryConfiguration {
+    }
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String type = i % 20 == 0 ? "boss" : TYPES[i % TYPES.length];
+            rows.add(new Object[] { "Enemy " + i, type, "region-" + (i % REGIONS), 1000.0, 100.0, 50.0,
+                "aggressive", (double) (i % 1000), 0, 0.1, 0.1 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO enemies (name, type, region, hp, damage, defense, behaviour, score,"
+            + " experience_reward, critical_chance, dodge_chance) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    @Test
+    void findByRegionUsesRegionIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findByRegion("region-7"), "region-7"),
+            "UK_ENEMIES_REGION_NAME", "IDX_ENEMIES_REGION_SCORE");
+    }
+
+    @Test
+    void findByNameUsesNameIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findByName("Enemy 4242"), "Enemy 4242"),
+            "IDX_ENEMIES_NAME");
+    }
+
+    @Test
+    void findByRegionAndMinScoreUsesRegionScoreIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findByRegionAndMinScore("region-7", 900.0), "region-7", 900.0),
+            "IDX_ENEMIES_REGION_SCORE");
+    }
+
+    @Test
+    void findByTypeUsesTypeIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findByType("boss"), "boss"),
+            "IDX_ENEMIES_TYPE_REGION");
+    }
+
+    @Test
+    void findRegularEnemiesByRegionUsesRegionIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findRegularEnemiesByRegion("region-7"), "region-7"),
+            "UK_ENEMIES_REGION_NAME", "IDX_ENEMIES_REGION_SCORE");
+    }
+
+    @Test
+    void findBossEnemiesByRegionUsesTypeRegionIndex() {
+        assertPlanUses(explain(() -> enemyRepository.findBossEnemiesByRegion("region-7"), "region-7"),
+            "IDX_ENEMIES_TYPE_REGION");
+    }
+
+    @Test
+    void sameNameInSameRegionIsRejected() {
+        Enemy duplicate = new Enemy("Enemy 7", "regular");
+        duplicate.setRegion("region-7");
+        DataIntegrityViolationException violation =
+            assertThrows(DataIntegrityViolationException.class, () -> enemyRepository.save(duplicate));
+        assertTrue(ConstraintViolations.violates(violation, Enemy.UNIQUE_REGION_NAME),
+            String.valueOf(ConstraintViolations.constraintName(violation)));
+
+        Enemy otherRegion = new Enemy("Enemy 7", "regular");
+        otherRegion.setRegion("region-8");
+        enemyRepository.save(otherRegion);
+        enemyRepository.delete(otherRegion);
+    }
+
+    /** Runs the repository query and returns the plan of the SQL it was translated to. */
+    private String explain(Supplier<List<Enemy>> query, Object... parameters) {
+        CapturingInspector.statements.clear();
+        query.get();
+        String sql = CapturingInspector.statements.stream()
+            .filter(statement -> statement.toLowerCase().startsWith("select"))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No select was executed"));
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private static void assertPlanUses(String plan, String... indexes) {
+        assertFalse(plan.contains("tableScan"), plan);
+        boolean usesIndex = false;
+        for (String index : indexes) {
+            usesIndex |= plan.toUpperCase().contains(index);
+        }
+        assertTrue(usesIndex, plan);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        private static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
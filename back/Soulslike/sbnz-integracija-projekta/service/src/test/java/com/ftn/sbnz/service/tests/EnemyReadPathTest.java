@@ -0,0 +1,138 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.Tag;
+import com.ftn.sbnz.service.EnemyRepository;
+
+/**
+ * Counts the statements of the read-only catalog queries. Loading enemies with all
+ * four tag collections must take the same number of statements for any number of
+ * enemies, and must not leave managed entities in the persistence context.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class EnemyReadPathTest {
+
+    private static final int STATEMENTS = 5;
+
+    @Autowired
+    private EnemyRepository enemyRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Enemy.class)
+    @EnableJpaRepositories(basePackageClasses = EnemyRepository.class)
+    static class RepositoryConfiguration {
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().unwrap(Session.class).getSessionFactory().getStatistics();
+    }
+
+    @Test
+    void regionIsReadInConstantNumberOfStatements() {
+        seed(10);
+        assertEquals(5, readRegion("region-1").size());
+        assertEquals(STATEMENTS, statistics.getPrepareStatementCount());
+
+        seed(200);
+        assertEquals(100, readRegion("region-1").size());
+        assertEquals(STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void catalogIsReadInConstantNumberOfStatements() {
+        seed(300);
+        statistics.clear();
+        List<Enemy> enemies = enemyRepository.findAllReadOnly();
+
+        assertEquals(300, enemies.size());
+        assertEquals(STATEMENTS, statistics.getPrepareStatementCount());
+        assertUntracked();
+    }
+
+    @Test
+    void enemiesComeWithAllTheirTags() {
+        seed(4);
+        Enemy enemy = readRegion("region-0").get(0);
+
+        assertEquals("Enemy 0", enemy.getName());
+        assertEquals(Set.of(Tag.MAGIC, Tag.RANGED), enemy.getAbilities());
+        assertEquals(Set.of(Tag.FIRE), enemy.getResistances());
+        assertEquals(Set.of(Tag.POISON), enemy.getStatusEffects());
+        assertEquals(Set.of(Tag.HOLY, Tag.ICE), enemy.getWeaknesses());
+        assertTrue(readRegion("region-9").isEmpty());
+    }
+
+    @Test
+    void unknownTagLabelsAreSkipped() {
+        seed(2);
+        Long id = readRegion("region-0").get(0).getId();
+        entityManager.getEntityManager()
+            .createNativeQuery("INSERT INTO enemy_abilities (enemy_id, abilities) VALUES (:id, 'shadow-step')")
+            .setParameter("id", id)
+            .executeUpdate();
+
+        Enemy enemy = readRegion("region-0").get(0);
+        assertEquals(id, enemy.getId());
+        assertEquals(Set.of(Tag.MAGIC, Tag.RANGED), enemy.getAbilities());
+    }
+
+    private List<Enemy> readRegion(String region) {
+        statistics.clear();
+        List<Enemy> enemies = enemyRepository.findByRegionReadOnly(region);
+        assertUntracked();
+        return enemies;
+    }
+
+    private void assertUntracked() {
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    private void seed(int count) {
+        List<Enemy> enemies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Enemy enemy = new Enemy("Enemy " + i, i % 7 == 0 ? "boss" : "regular");
+            enemy.setRegion("region-" + (i % 2));
+            enemy.getAbilities().addAll(Set.of(Tag.MAGIC, Tag.RANGED));
+            enemy.getResistances().add(Tag.FIRE);
+            enemy.getStatusEffects().add(Tag.POISON);
+            enemy.getWeaknesses().addAll(Set.of(Tag.HOLY, Tag.ICE));
+            enemies.add(enemy);
+        }
+        enemyRepository.deleteAll();
+        entityManager.flush();
+        enemyRepository.saveAll(enemies);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
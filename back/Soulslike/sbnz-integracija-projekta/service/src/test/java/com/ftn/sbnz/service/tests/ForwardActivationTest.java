@@ -0,0 +1,136 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.runtime.KieSession;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ftn.sbnz.model.models.Enemy;
+import com.ftn.sbnz.model.models.EnemyCandidate;
+import com.ftn.sbnz.model.models.GameContext;
+import com.ftn.sbnz.model.models.Player;
+import com.ftn.sbnz.service.EnemyGenerationService;
+import com.ftn.sbnz.service.ForwardKieBaseCache;
+import com.ftn.sbnz.service.RuleRelease;
+
+/**
+ * Counts the work of the forward rules for one request, for the executable model of
+ * the kjar and for the DRL. The rules match the candidates with {@code from
+ * enemyCandidates} and change them with plain setters, so each stat and score rule
+ * activates once per matching candidate and no fact is ever updated.
+ */
+public class ForwardActivationTest {
+
+    @Test
+    void executableModelActivatesStatRulesOncePerCandidate() {
+        assertActivationsPerCandidate(fire(forwardKieBase("kjar")));
+    }
+
+    @Test
+    void drlActivatesStatRulesOncePerCandidate() {
+        assertActivationsPerCandidate(fire(forwardKieBase("drl")));
+    }
+
+    /** Each of these changes hp, damage, defense or score of every matching candidate. */
+    private static void assertActivationsPerCandidate(Activations activations) {
+        assertEquals(Integer.valueOf(5), activations.created.get("Apply medium Difficulty"));
+        assertEquals(Integer.valueOf(5), activations.created.get("Adjust for Low Level Player - Modify"));
+        assertEquals(Integer.valueOf(1), activations.created.get("Night Enhances Witch"));
+        assertEquals(Integer.valueOf(1), activations.created.get("Night Enhances Goblin"));
+        assertEquals(Integer.valueOf(1), activations.created.get("Night Enhances Undead"));
+        assertEquals(Integer.valueOf(3), activations.created.get("Reward Enemy Type Matching Time of Day"));
+        assertEquals(Integer.valueOf(1), activations.created.get("Prevent Boss Spam - Penalize Consecutive Bosses"));
+        assertEquals(Integer.valueOf(1), activations.fired.get("Select Best Enemy by Contextual Score"));
+        assertEquals(0, activations.updates, "facts updated");
+
+        for (Map.Entry<String, Integer> rule : activations.fired.entrySet()) {
+            assertTrue(rule.getValue() <= 5, rule.getKey() + " fired " + rule.getValue() + " times");
+        }
+    }
+
+    /** Fires the forward phases for one request against five swamp enemies. */
+    private static Activations fire(KieBase kieBase) {
+        List<Enemy> catalog = new ArrayList<>();
+        catalog.add(enemy("Bog Witch", "witch", 800));
+        catalog.add(enemy("Swamp Goblin", "goblin", 400));
+        catalog.add(enemy("Drowned Knight", "undead", 1200));
+        catalog.add(enemy("Mire Lurker", "creature", 600));
+        catalog.add(enemy("Swamp King", "boss", 5000));
+
+        Player player = new Player("tester", 5, Player.PlayerClass.STRENGTH, "sword");
+        GameContext context = new GameContext("swamp", "medium", "rain", "night", player);
+
+        Activations activations = new Activations();
+        KieSession kieSession = kieBase.newKieSession();
+        try {
+            kieSession.addEventListener(new DefaultAgendaEventListener() {
+                @Override
+                public void matchCreated(MatchCreatedEvent event) {
+                    activations.created.merge(event.getMatch().getRule().getName(), 1, Integer::sum);
+                }
+
+                @Override
+                public void afterMatchFired(AfterMatchFiredEvent event) {
+                    activations.fired.merge(event.getMatch().getRule().getName(), 1, Integer::sum);
+                }
+            });
+            kieSession.addEventListener(new DefaultRuleRuntimeEventListener() {
+                @Override
+                public void objectUpdated(ObjectUpdatedEvent event) {
+                    activations.updates++;
+                }
+            });
+
+            List<Enemy> enemyCandidates = new ArrayList<>();
+            for (int i = 0; i < catalog.size(); i++) {
+                enemyCandidates.add(new EnemyCandidate(catalog.get(i), context, i));
+            }
+            kieSession.setGlobal("enemyCandidates", enemyCandidates);
+            kieSession.insert(context);
+            kieSession.insert(player);
+            List<String> phases = EnemyGenerationService.FORWARD_PHASES;
+            for (int i = phases.size() - 1; i >= 0; i--) {
+                kieSession.getAgenda().getAgendaGroup(phases.get(i)).setFocus();
+            }
+            // A rule that re-activates itself fails the per-candidate checks instead of hanging
+            kieSession.fireAllRules(1000);
+        } finally {
+            kieSession.dispose();
+        }
+        return activations;
+    }
+
+    private static KieBase forwardKieBase(String kieBaseSource) {
+        ForwardKieBaseCache cache = new ForwardKieBaseCache(new RuleRelease(KieServices.Factory.get().getKieClasspathContainer()));
+        ReflectionTestUtils.setField(cache, "kieBaseSource", kieBaseSource);
+        return cache.getKieBase();
+    }
+
+    private static Enemy enemy(String name, String type, double hp) {
+        Enemy enemy = new Enemy(name, type);
+        enemy.setRegion("swamp");
+        enemy.setHp(hp);
+        return enemy;
+    }
+
+    /** Activations created and fired, by rule name, and the number of fact updates. */
+    private static class Activations {
+        private final Map<String, Integer> created = new HashMap<>();
+        private final Map<String, Integer> fired = new HashMap<>();
+        private int updates;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ftn.sbnz.service.tests;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.ftn.sbnz.service.EnemyCatalog;
+import com.ftn.sbnz.service.RuleAdminController;
+import com.ftn.sbnz.service.RuleRelease;
+
+/**
+ * Rule reload and catalog refresh are not mapped unless enemy.admin.enabled is
+ * set, so a default deployment cannot swap rules or reload the catalog over HTTP.
+ */
+@WebMvcTest
+public class RuleAdminTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RuleRelease ruleRelease;
+
+    @MockBean
+    private EnemyCatalog enemyCatalog;
+
+    @Configuration
+    @Import(RuleAdminController.class)
+    static class ControllerConfiguration {
+    }
+
+    @Test
+    void adminEndpointsAreNotMappedByDefault() throws Exception {
+        mockMvc.perform(post("/api/engine/rules/reload")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/engine/catalog/refresh")).andExpect(status().isNotFound());
+        verify(ruleRelease, never()).reload();
+        verify(enemyCatalog, never()).refresh();
+    }
+}